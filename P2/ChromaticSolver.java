@@ -0,0 +1,273 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * ChromaticSolver --- brackets the chromatic number of a graph between the size of a greedy clique and the
+ * number of colors of a greedy DSatur coloring, then tightens the upper bound with the backtracking search.
+ * Every attempt asks for one color less than the best coloring so far, searches only the core left after peeling
+ * the vertices of degree below that number, tries the colors of the best coloring first and runs under a time
+ * budget; the sweep ends when the bounds meet, an attempt fails or the budget runs out.
+ */
+class ChromaticSolver{
+    final static int CLIQUE_STARTS = 1024;      // the maximum number of vertices a greedy clique is grown from
+
+    /**
+     * Attempt --- the outcome of the search for one number of colors
+     */
+    static class Attempt{
+        final int K;                            // the number of colors tried
+        final ColoringSolver.Status status;     // the outcome of the search
+        final long millis;                      // the time spent in the search
+
+        Attempt(int K, ColoringSolver.Status status, long millis){
+            this.K = K;
+            this.status = status;
+            this.millis = millis;
+        }
+    }
+
+    private final Graph graph;                  // the graph, shared by every attempt
+    private final long budgetMillis;            // the time budget of every attempt, 0 for none
+    private final SolverOptions options;        // heuristic settings of every attempt
+    private final List<Attempt> attempts;       // the attempts of the last solve(), in order
+    private int lowerBound = 0;                 // the size of the largest clique found, then raised by failed attempts
+    private int upperBound = 0;                 // the number of colors of the best coloring
+    private int[] best;                         // the best coloring found
+    private int[] clique;                       // vertices of the largest clique found
+    private int greedyColors = 0;               // the number of colors of the DSatur coloring
+    private SearchMonitor monitor;              // the budget and counters of the run, may be null
+
+    /**
+     * Constructor function for initializing variables
+     * @param graph - the graph
+     * @param budgetMillis - the time budget of every attempt, 0 for none
+     * @param options - heuristic settings of every attempt
+     */
+    ChromaticSolver(Graph graph, long budgetMillis, SolverOptions options){
+        this.graph = graph;
+        this.budgetMillis = budgetMillis;
+        this.options = options;
+        this.attempts = new ArrayList<>();
+    }
+
+    /**
+     * Brackets the chromatic number and tightens the bounds until they meet or an attempt is not successful
+     * @return true if the chromatic number has been found, i.e the bounds are equal
+     */
+    public boolean solve(){
+        clique = greedyClique();
+        lowerBound = clique.length;
+        best = dsatur(graph);
+        upperBound = greedyColors = colorsUsed(best);
+        attempts.clear();
+
+        while (upperBound > lowerBound){
+            int K = upperBound - 1;
+            CoreReduction reduction = new CoreReduction(graph, K);
+            int[] kept = reduction.getKept();
+            int[] hint = new int[kept.length];
+            for (int i = 0; i < kept.length; i++) hint[i] = best[kept[i]];
+            ColoringSolver solver = new ColoringSolver(reduction.getCore(), K, options);
+            solver.setHint(hint); // start from the colors of the best coloring, losing only the dropped color
+
+            AtomicBoolean stop = new AtomicBoolean(false);
+            solver.setStop(stop);
+            solver.setMonitor(monitor);
+            ScheduledFuture<?> timeout = budgetMillis > 0 ? GraphColoring.TIMER.schedule(() -> stop.set(true), budgetMillis, TimeUnit.MILLISECONDS) : null;
+            long start = System.nanoTime();
+            ColoringSolver.Status status = solver.solve();
+            if (timeout != null) timeout.cancel(false);
+            attempts.add(new Attempt(K, status, (System.nanoTime() - start) / 1000000));
+
+            if (status == ColoringSolver.Status.SATISFIABLE) {
+                best = reduction.restore(solver.getAssigned());
+                upperBound = colorsUsed(best);
+            }
+            else if (status == ColoringSolver.Status.UNSATISFIABLE) lowerBound = upperBound;
+            else break; // out of budget
+        }
+        return lowerBound == upperBound;
+    }
+
+    /**
+     * Renumbers the colors of a coloring to 0..c-1, keeping their order
+     * @param coloring - the coloring, changed in place
+     * @return the number of colors c
+     */
+    private static int colorsUsed(int[] coloring){
+        int max = -1;
+        for (int color : coloring) max = Math.max(max, color);
+        int[] renumber = new int[max + 1];
+        for (int color : coloring) renumber[color] = 1;
+        int count = 0;
+        for (int color = 0; color <= max; color++) if (renumber[color] != 0) renumber[color] = count++;
+        for (int v = 0; v < coloring.length; v++) coloring[v] = renumber[coloring[v]];
+        return count;
+    }
+
+    /**
+     * Colors the graph greedily in DSatur order: the vertex with the most distinct neighbour colors first,
+     * the higher degree on ties, always with the smallest color not used by a neighbour
+     * @param graph - the graph
+     * @return the coloring
+     */
+    public static int[] dsatur(Graph graph){
+        int n = graph.size();
+        int[] offsets = graph.getOffsets();
+        int[] neighbours = graph.getNeighbours();
+        int[] color = new int[n];
+        Arrays.fill(color, -1);
+
+        // distinct colors seen by every vertex, stored in its own part of a CSR-aligned array
+        int[] seen = new int[neighbours.length];
+        int[] saturation = new int[n];
+        int[] mark = new int[n + 1];            // mark[c] == v + 1 if color c is used by a neighbour of v
+
+        // max-heap of the uncolored vertices by (saturation, degree)
+        int[] heap = new int[n];
+        int[] position = new int[n];
+        for (int v = 0; v < n; v++){
+            heap[v] = v;
+            position[v] = v;
+        }
+        int size = n;
+        for (int i = n / 2 - 1; i >= 0; i--) siftDown(graph, heap, position, size, i, saturation);
+
+        while (size > 0){
+            int v = heap[0];
+            heap[0] = heap[--size];
+            position[heap[0]] = 0;
+            siftDown(graph, heap, position, size, 0, saturation);
+
+            // the smallest color no neighbour has
+            for (int i = 0; i < saturation[v]; i++) mark[seen[offsets[v] + i]] = v + 1;
+            int c = 0;
+            while (mark[c] == v + 1) c++;
+            color[v] = c;
+
+            for (int p = offsets[v], end = offsets[v + 1]; p < end; p++){
+                int u = neighbours[p];
+                if (color[u] != -1) continue;
+                boolean known = false;
+                for (int i = offsets[u], last = offsets[u] + saturation[u]; i < last && !known; i++) known = seen[i] == c;
+                if (known) continue;
+                seen[offsets[u] + saturation[u]++] = c;
+                siftUp(graph, heap, position, position[u], saturation);
+            }
+        }
+        return color;
+    }
+
+    private static boolean higher(Graph graph, int a, int b, int[] saturation){
+        if (saturation[a] != saturation[b]) return saturation[a] > saturation[b];
+        if (graph.degree(a) != graph.degree(b)) return graph.degree(a) > graph.degree(b);
+        return a < b;
+    }
+
+    private static void siftUp(Graph graph, int[] heap, int[] position, int i, int[] saturation){
+        int v = heap[i];
+        while (i > 0){
+            int parent = (i - 1) / 2;
+            if (!higher(graph, v, heap[parent], saturation)) break;
+            heap[i] = heap[parent];
+            position[heap[i]] = i;
+            i = parent;
+        }
+        heap[i] = v;
+        position[v] = i;
+    }
+
+    private static void siftDown(Graph graph, int[] heap, int[] position, int size, int i, int[] saturation){
+        int v = heap[i];
+        while (2 * i + 1 < size){
+            int child = 2 * i + 1;
+            if (child + 1 < size && higher(graph, heap[child + 1], heap[child], saturation)) child++;
+            if (!higher(graph, heap[child], v, saturation)) break;
+            heap[i] = heap[child];
+            position[heap[i]] = i;
+            i = child;
+        }
+        heap[i] = v;
+        position[v] = i;
+    }
+
+    /**
+     * Grows cliques greedily from the vertices of the highest degrees, adding neighbours in order of degree
+     * @return vertices of the largest clique found
+     */
+    public int[] greedyClique(){
+        int n = graph.size();
+        int[] offsets = graph.getOffsets();
+        int[] neighbours = graph.getNeighbours();
+        if (n == 0) return new int[0];
+
+        // vertices by degree, highest first
+        long[] byDegree = new long[n];
+        for (int v = 0; v < n; v++) byDegree[v] = ((long) graph.degree(v) << 32) | (n - 1 - v);
+        Arrays.sort(byDegree);
+
+        int[] bestClique = new int[]{(int) (n - 1 - (byDegree[n - 1] & 0xffffffffL))};
+        int[] current = new int[n];
+        long[] candidates = new long[n];
+        for (int s = 0; s < Math.min(n, CLIQUE_STARTS); s++){
+            int v = n - 1 - (int) (byDegree[n - 1 - s] & 0xffffffffL);
+            if (graph.degree(v) + 1 <= bestClique.length) break; // no larger clique can contain v or any later start
+
+            int count = 0;
+            for (int p = offsets[v], end = offsets[v + 1]; p < end; p++){
+                int u = neighbours[p];
+                candidates[count++] = ((long) graph.degree(u) << 32) | (n - 1 - u);
+            }
+            Arrays.sort(candidates, 0, count);
+
+            int size = 0;
+            current[size++] = v;
+            for (int i = count - 1; i >= 0; i--){
+                int u = n - 1 - (int) (candidates[i] & 0xffffffffL);
+                boolean adjacent = true;
+                for (int j = 1; j < size && adjacent; j++){
+                    adjacent = Arrays.binarySearch(neighbours, offsets[u], offsets[u + 1], current[j]) >= 0;
+                }
+                if (adjacent) current[size++] = u;
+            }
+            if (size > bestClique.length) bestClique = Arrays.copyOf(current, size);
+        }
+        return bestClique;
+    }
+
+    /**
+     * Getter and setter functions for class variables
+     */
+
+    public int getLowerBound(){
+        return lowerBound;
+    }
+
+    public int getUpperBound(){
+        return upperBound;
+    }
+
+    public int[] getBest(){
+        return best;
+    }
+
+    public int[] getClique(){
+        return clique;
+    }
+
+    public int getGreedyColors(){
+        return greedyColors;
+    }
+
+    public List<Attempt> getAttempts(){
+        return attempts;
+    }
+
+    public void setMonitor(SearchMonitor monitor){
+        this.monitor = monitor;
+    }
+}
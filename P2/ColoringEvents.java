@@ -0,0 +1,102 @@
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+/**
+ * ColoringEvents --- Java Flight Recorder events of a coloring run. They cost next to nothing unless a
+ * recording is running, e.g. with -XX:StartFlightRecording, and are not created at all with
+ * -Dcoloring.instrument=false.
+ */
+class ColoringEvents{
+    /**
+     * Phase --- one phase of a run: loading, peeling, searching, local search, restoring
+     */
+    @Name("coloring.Phase")
+    @Label("Coloring Phase")
+    @Category("Graph Coloring")
+    @Description("A phase of a coloring run")
+    static class Phase extends Event{
+        @Label("Phase")
+        String phase;                           // the name of the phase
+
+        @Label("Vertices")
+        int vertices;                           // the number of vertices the phase works on
+
+        @Label("Colors")
+        int colors;                             // the number of colors
+
+        @Label("Outcome")
+        String outcome;                         // the status or result of the phase, empty if none
+    }
+
+    /**
+     * Search --- the counters of one ColoringSolver at the end of a search
+     */
+    @Name("coloring.Search")
+    @Label("Coloring Search")
+    @Category("Graph Coloring")
+    @Description("Counters of one backtracking search")
+    static class Search extends Event{
+        @Label("Vertices")
+        int vertices;                           // the number of vertices of the searched graph
+
+        @Label("Status")
+        String status;                          // the outcome of the search
+
+        @Label("Nodes")
+        long nodes;                             // the number of colors assigned to a vertex
+
+        @Label("Backtracks")
+        long backtracks;                        // the number of exhausted frames left
+
+        @Label("Revisions")
+        long revisions;                         // the number of arcs revised by AC-3
+
+        @Label("Wipeouts")
+        long wipeouts;                          // the number of emptied domains
+
+        @Label("Restarts")
+        long restarts;                          // the number of times the search started over
+
+        @Label("Max Depth")
+        int maxDepth;                           // the deepest level reached
+
+        @Label("Propagation Time")
+        @Timespan(Timespan.NANOSECONDS)
+        long propagationNanos;                  // the time spent propagating assignments
+    }
+
+    /**
+     * Starts timing a phase, or returns null if instrumentation is off
+     * @param phase - the name of the phase
+     * @param vertices - the number of vertices the phase works on
+     * @param colors - the number of colors
+     * @return Phase
+     */
+    public static Phase begin(String phase, int vertices, int colors){
+        if (!SearchStats.ENABLED) return null;
+        Phase event = new Phase();
+        event.phase = phase;
+        event.vertices = vertices;
+        event.colors = colors;
+        event.begin();
+        return event;
+    }
+
+    /**
+     * Ends and records a phase started by begin()
+     * @param event - the event, null if instrumentation is off
+     * @param outcome - the status or result of the phase
+     */
+    public static void end(Phase event, Object outcome){
+        if (event == null) return;
+        event.end();
+        if (event.shouldCommit()) {
+            event.outcome = String.valueOf(outcome);
+            event.commit();
+        }
+    }
+}
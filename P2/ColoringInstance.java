@@ -0,0 +1,80 @@
+/**
+ * ColoringInstance --- a graph and its number of colors read from a file. A snapshot compiled from a text file
+ * is loaded instead of parsing it, unless the snapshot is stale or damaged.
+ */
+class ColoringInstance{
+    private final String fileName;              // the name of the file given
+    private final Graph graph;                  // the graph of the CSP
+    private final int K;                        // the number of colors given in the file
+    private final String snapshotName;          // the name of the snapshot loaded, null if the text has been parsed
+    private final String snapshotError;         // why a snapshot next to the text file was not used, null if none
+
+    private ColoringInstance(String fileName, Graph graph, int K, String snapshotName, String snapshotError){
+        this.fileName = fileName;
+        this.graph = graph;
+        this.K = K;
+        this.snapshotName = snapshotName;
+        this.snapshotError = snapshotError;
+    }
+
+    /**
+     * Reads a text file or a snapshot
+     * @param fileName - the name of a text file or of a snapshot
+     * @param threads - the number of threads parsing a text file
+     * @param useSnapshot - whether a fresh snapshot of a text file is loaded instead of it
+     * @return ColoringInstance
+     * @throws Exception - if the file cannot be read or is malformed
+     */
+    public static ColoringInstance load(String fileName, int threads, boolean useSnapshot) throws Exception{
+        ColoringEvents.Phase phase = ColoringEvents.begin("load", 0, -1);
+        ColoringInstance instance = read(fileName, threads, useSnapshot);
+        if (phase != null) phase.vertices = instance.graph.size();
+        ColoringEvents.end(phase, instance.snapshotName != null ? "snapshot" : "parsed");
+        return instance;
+    }
+
+    private static ColoringInstance read(String fileName, int threads, boolean useSnapshot) throws Exception{
+        boolean isSnapshot = fileName.endsWith(GraphSnapshot.EXTENSION);
+        String snapshotError = null;
+        if (isSnapshot || (useSnapshot && GraphSnapshot.isFresh(fileName))) {
+            String snapshotName = isSnapshot ? fileName : GraphSnapshot.pathFor(fileName);
+            try {
+                GraphSnapshot snapshot = GraphSnapshot.read(snapshotName);
+                return new ColoringInstance(fileName, snapshot.getGraph(), snapshot.getK(), snapshotName, null);
+            }
+            catch (Exception ex){
+                if (isSnapshot) throw ex;
+                snapshotError = ex.getMessage();
+            }
+        }
+
+        // map the file and parse chunks of edge lines in parallel
+        EdgeListLoader loader = new EdgeListLoader(fileName, threads);
+        Graph graph = loader.load();
+        return new ColoringInstance(fileName, graph, loader.getK(), null, snapshotError);
+    }
+
+    /**
+     * Getter functions for class variables
+     */
+
+    public String getFileName(){
+        return fileName;
+    }
+
+    public Graph getGraph(){
+        return graph;
+    }
+
+    public int getK(){
+        return K;
+    }
+
+    public String getSnapshotName(){
+        return snapshotName;
+    }
+
+    public String getSnapshotError(){
+        return snapshotError;
+    }
+}
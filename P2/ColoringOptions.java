@@ -0,0 +1,164 @@
+/**
+ * ColoringOptions --- settings of one coloring run: which engine colors the graph and with which resources.
+ * The heuristic settings of the backtracking search itself are kept in SolverOptions.
+ */
+class ColoringOptions{
+    /**
+     * Mode --- the engine coloring the graph
+     */
+    enum Mode { SEARCH, PORTFOLIO, PARALLEL, CHROMATIC, TABU }
+
+    private Mode mode = Mode.SEARCH;                                // the engine coloring the graph
+    private int colors = -1;                                        // the number of colors overriding the file, -1 if none
+    private int portfolioSize = 8;                                  // the number of solver instances racing each other
+    private int treeThreads = 8;                                    // the number of threads sharing one split search tree
+    private int threads = Runtime.getRuntime().availableProcessors(); // the number of threads solving components or instances
+    private long budgetMillis = 10000;                              // the time budget of every number of colors tried or search phase
+    private int handoff = 16;                                       // the largest number of conflicts local search hands over
+    private long timeLimitMillis = 0;                               // the wall-clock budget of the whole search, 0 for none
+    private long nodeLimit = 0;                                     // the budget of nodes (colors assigned) of all solvers, 0 for none
+    private long progressMillis = 0;                                // the interval of progress lines, 0 for none
+    private SolverOptions solverOptions = new SolverOptions();      // heuristic settings of the backtracking search
+
+    /**
+     * Reads the options of the command line
+     * @param args - the command line
+     * @param from - index of the first option
+     * @return ColoringOptions
+     * @throws IllegalArgumentException - if an option is unknown or its value is missing or not a number
+     */
+    public static ColoringOptions parse(String[] args, int from){
+        ColoringOptions options = new ColoringOptions();
+        for (int i = from; i < args.length; i++){
+            String option = args[i];
+            if (option.equals("--chromatic")) options.setMode(Mode.CHROMATIC);
+            else if (option.equals("--tabu")) options.setMode(Mode.TABU);
+            else if (i + 1 >= args.length) throw new IllegalArgumentException("Unknown option or missing value: " + option);
+            else if (option.equals("--portfolio")) options.setMode(Mode.PORTFOLIO).setPortfolioSize(Integer.parseInt(args[++i]));
+            else if (option.equals("--parallel")) options.setMode(Mode.PARALLEL).setTreeThreads(Integer.parseInt(args[++i]));
+            else if (option.equals("--colors")) options.setColors(Integer.parseInt(args[++i]));
+            else if (option.equals("--threads")) options.setThreads(Integer.parseInt(args[++i]));
+            else if (option.equals("--handoff")) options.setHandoff(Integer.parseInt(args[++i]));
+            else if (option.equals("--budget")) options.setBudgetMillis((long) (Double.parseDouble(args[++i]) * 1000));
+            else if (option.equals("--time-limit")) options.setTimeLimitMillis((long) (Double.parseDouble(args[++i]) * 1000));
+            else if (option.equals("--node-limit")) options.setNodeLimit(Long.parseLong(args[++i]));
+            else if (option.equals("--restarts")) options.getSolverOptions().setRestarts(parseRestarts(args[++i]));
+            else if (option.equals("--progress")) options.setProgressMillis((long) (Double.parseDouble(args[++i]) * 1000));
+            else throw new IllegalArgumentException("Unknown option: " + option);
+        }
+        // a portfolio of one instance is the plain search
+        if (options.mode == Mode.PORTFOLIO && options.portfolioSize <= 1) options.setMode(Mode.SEARCH);
+        if (options.mode == Mode.PARALLEL && options.treeThreads <= 0) options.setMode(Mode.SEARCH);
+        return options;
+    }
+
+    private static SolverOptions.Restarts parseRestarts(String name){
+        for (SolverOptions.Restarts restarts : SolverOptions.Restarts.values()){
+            if (restarts.name().equalsIgnoreCase(name)) return restarts;
+        }
+        throw new IllegalArgumentException("Unknown restart schedule: " + name + ", use none, luby or geometric");
+    }
+
+    /**
+     * Getter and setter functions for class variables
+     */
+
+    public Mode getMode(){
+        return mode;
+    }
+
+    public ColoringOptions setMode(Mode mode){
+        this.mode = mode;
+        return this;
+    }
+
+    public int getColors(){
+        return colors;
+    }
+
+    public ColoringOptions setColors(int colors){
+        this.colors = colors;
+        return this;
+    }
+
+    public int getPortfolioSize(){
+        return portfolioSize;
+    }
+
+    public ColoringOptions setPortfolioSize(int portfolioSize){
+        this.portfolioSize = portfolioSize;
+        return this;
+    }
+
+    public int getTreeThreads(){
+        return treeThreads;
+    }
+
+    public ColoringOptions setTreeThreads(int treeThreads){
+        this.treeThreads = treeThreads;
+        return this;
+    }
+
+    public int getThreads(){
+        return threads;
+    }
+
+    public ColoringOptions setThreads(int threads){
+        this.threads = Math.max(1, threads);
+        return this;
+    }
+
+    public long getBudgetMillis(){
+        return budgetMillis;
+    }
+
+    public ColoringOptions setBudgetMillis(long budgetMillis){
+        this.budgetMillis = budgetMillis;
+        return this;
+    }
+
+    public int getHandoff(){
+        return handoff;
+    }
+
+    public ColoringOptions setHandoff(int handoff){
+        this.handoff = handoff;
+        return this;
+    }
+
+    public long getTimeLimitMillis(){
+        return timeLimitMillis;
+    }
+
+    public ColoringOptions setTimeLimitMillis(long timeLimitMillis){
+        this.timeLimitMillis = timeLimitMillis;
+        return this;
+    }
+
+    public long getNodeLimit(){
+        return nodeLimit;
+    }
+
+    public ColoringOptions setNodeLimit(long nodeLimit){
+        this.nodeLimit = nodeLimit;
+        return this;
+    }
+
+    public long getProgressMillis(){
+        return progressMillis;
+    }
+
+    public ColoringOptions setProgressMillis(long progressMillis){
+        this.progressMillis = progressMillis;
+        return this;
+    }
+
+    public SolverOptions getSolverOptions(){
+        return solverOptions;
+    }
+
+    public ColoringOptions setSolverOptions(SolverOptions solverOptions){
+        this.solverOptions = solverOptions;
+        return this;
+    }
+}
@@ -0,0 +1,76 @@
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * ColoringResult --- the outcome of one coloring run: the status, the coloring of the whole graph
+ * and statistics of the run. Lines of details depend on the engine, e.g. the bounds of the chromatic number.
+ */
+class ColoringResult{
+    private final ColoringSolver.Status status; // the outcome of the run
+    private final int[] assigned;               // colors of all vertices if the status is SATISFIABLE, null otherwise
+    private final int K;                        // the number of colors asked for, or the upper bound in the chromatic mode
+    private final int peeledCount;              // the number of vertices peeled off before the search
+    private final int coreSize;                 // the number of vertices left in the core
+    private final long millis;                  // the time the run took
+    private final List<String> details;         // statistics of the engine, one line each
+    private final SearchStats stats;            // counters of all backtracking searches of the run
+
+    /**
+     * Constructor function for initializing variables
+     * @param status - the outcome of the run
+     * @param assigned - colors of all vertices, null if there is no coloring
+     * @param K - the number of colors asked for, or the upper bound in the chromatic mode
+     * @param peeledCount - the number of vertices peeled off before the search
+     * @param coreSize - the number of vertices left in the core
+     * @param millis - the time the run took
+     * @param details - statistics of the engine, one line each
+     * @param stats - counters of all backtracking searches of the run
+     */
+    ColoringResult(ColoringSolver.Status status, int[] assigned, int K, int peeledCount, int coreSize, long millis,
+                   List<String> details, SearchStats stats){
+        this.status = status;
+        this.assigned = status == ColoringSolver.Status.SATISFIABLE ? assigned : null;
+        this.K = K;
+        this.peeledCount = peeledCount;
+        this.coreSize = coreSize;
+        this.millis = millis;
+        this.details = new ArrayList<>(details);
+        this.stats = stats;
+    }
+
+    /**
+     * Getter functions for class variables
+     */
+
+    public ColoringSolver.Status getStatus(){
+        return status;
+    }
+
+    public int[] getAssigned(){
+        return assigned;
+    }
+
+    public int getK(){
+        return K;
+    }
+
+    public int getPeeledCount(){
+        return peeledCount;
+    }
+
+    public int getCoreSize(){
+        return coreSize;
+    }
+
+    public long getMillis(){
+        return millis;
+    }
+
+    public List<String> getDetails(){
+        return details;
+    }
+
+    public SearchStats getStats(){
+        return stats;
+    }
+}
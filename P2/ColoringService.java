@@ -0,0 +1,190 @@
+import java.io.*;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * ColoringService --- colors many graphs in one process, so that they share a warmed-up JVM.
+ * The batch mode colors every graph file of a directory on a bounded thread pool. The service mode reads
+ * requests, one per line, from standard input or from connections to a local socket:
+ *     graph.txt [options of the command line]
+ * and answers each of them with
+ *     STATUS K milliseconds
+ *     id=color id=color ...            (only if the status is SATISFIABLE)
+ *     (an empty line)
+ * or with "ERROR message" and an empty line. Recently used graphs are kept loaded between requests.
+ */
+class ColoringService{
+    final static int CACHED_GRAPHS = 8;         // the number of loaded graphs kept between requests
+
+    private final int threads;                  // the number of graphs colored at once
+    private final Map<String, ColoringInstance> cache;  // loaded graphs by file name and modification time, least recently used first
+
+    /**
+     * Constructor function for initializing variables
+     * @param threads - the number of graphs colored at once
+     */
+    ColoringService(int threads){
+        this.threads = Math.max(1, threads);
+        this.cache = new LinkedHashMap<String, ColoringInstance>(16, 0.75f, true){
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, ColoringInstance> eldest){
+                return size() > CACHED_GRAPHS;
+            }
+        };
+    }
+
+    /**
+     * Loads a graph, or takes it from the cache if the file has not changed since
+     * @param fileName - the name of a text file or of a snapshot
+     * @param loaderThreads - the number of threads parsing a text file
+     * @return ColoringInstance
+     * @throws Exception - if the file cannot be read or is malformed
+     */
+    private ColoringInstance load(String fileName, int loaderThreads) throws Exception{
+        File file = new File(fileName);
+        String key = file.getCanonicalPath() + "@" + file.lastModified();
+        synchronized (cache) {
+            ColoringInstance instance = cache.get(key);
+            if (instance != null) return instance;
+        }
+        ColoringInstance instance = ColoringInstance.load(fileName, loaderThreads, true);
+        synchronized (cache) {
+            cache.put(key, instance);
+        }
+        return instance;
+    }
+
+    // ----------- Batch Mode -----------
+
+    /**
+     * Colors every graph file of a directory: text files, and snapshots whose text file is not there.
+     * Prints one line per file in the order of the file names.
+     * @param directory - the directory
+     * @param options - the engine and its settings, shared by every graph
+     * @param out - the stream the lines are printed to
+     * @throws InterruptedException - if the waiting thread is interrupted
+     */
+    public void batch(File directory, ColoringOptions options, PrintStream out) throws InterruptedException{
+        File[] files = directory.listFiles(file -> file.isFile() && (file.getName().endsWith(".txt") ||
+                (file.getName().endsWith(GraphSnapshot.EXTENSION) && !new File(file.getPath().substring(0,
+                        file.getPath().length() - GraphSnapshot.EXTENSION.length())).exists())));
+        if (files == null) throw new IllegalArgumentException("Not a directory: " + directory);
+        Arrays.sort(files);
+
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<String>> lines = new ArrayList<>();
+            for (File file : files) lines.add(pool.submit(() -> summary(file.getName(), file.getPath(), options)));
+            for (Future<String> line : lines){
+                try {
+                    out.println(line.get());
+                }
+                catch (ExecutionException ex){
+                    out.println(ex.getCause());
+                }
+            }
+        }
+        finally {
+            pool.shutdownNow();
+        }
+    }
+
+    /**
+     * Colors one graph file of a batch
+     * @return a line with the outcome, or with the error
+     */
+    private String summary(String name, String fileName, ColoringOptions options){
+        try {
+            ColoringInstance instance = ColoringInstance.load(fileName, 1, true);
+            GraphColoring coloring = new GraphColoring(instance.getGraph(), instance.getK(), options);
+            ColoringResult result = coloring.solve();
+            return String.format("%s: %s, %d colors, %d vertices, %d ms", name, result.getStatus(), result.getK(),
+                    instance.getGraph().size(), result.getMillis());
+        }
+        catch (Exception ex){
+            return String.format("%s: ERROR %s", name, String.valueOf(ex.getMessage()).replace('\n', ' '));
+        }
+    }
+
+    // ----------- Service Mode -----------
+
+    /**
+     * Answers requests from a reader until it ends or sends "quit"
+     * @param in - the requests
+     * @param out - the answers
+     * @throws IOException - if the requests cannot be read
+     */
+    public void serve(BufferedReader in, PrintWriter out) throws IOException{
+        String line;
+        while ((line = in.readLine()) != null){
+            line = line.trim();
+            if (line.isEmpty()) continue;
+            if (line.equals("quit")) break;
+            out.print(answer(line.split("\\s+")));
+            out.flush();
+        }
+    }
+
+    /**
+     * Accepts connections to a port of the loopback address and answers their requests, each connection
+     * on a thread of the pool, until the process ends
+     * @param port - the port, 0 for any free port
+     * @param log - the stream the bound port is printed to
+     * @throws IOException - if the port cannot be bound
+     */
+    public void listen(int port, PrintStream log) throws IOException{
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try (ServerSocket server = new ServerSocket(port, 50, InetAddress.getLoopbackAddress())) {
+            log.printf("Listening on %s:%d\n", server.getInetAddress().getHostAddress(), server.getLocalPort());
+            while (true){
+                Socket socket = server.accept();
+                pool.execute(() -> {
+                    try (Socket connection = socket;
+                         BufferedReader in = new BufferedReader(new InputStreamReader(connection.getInputStream(), StandardCharsets.UTF_8));
+                         PrintWriter out = new PrintWriter(new OutputStreamWriter(connection.getOutputStream(), StandardCharsets.UTF_8))) {
+                        serve(in, out);
+                    }
+                    catch (IOException ex){
+                        log.printf("Connection failed: %s\n", ex.getMessage());
+                    }
+                });
+            }
+        }
+        finally {
+            pool.shutdownNow();
+        }
+    }
+
+    /**
+     * Colors the graph of one request
+     * @param request - the name of the graph file followed by options of the command line
+     * @return the answer, ending with an empty line
+     */
+    private String answer(String[] request){
+        try {
+            ColoringOptions options = ColoringOptions.parse(request, 1);
+            ColoringInstance instance = load(request[0], options.getThreads());
+            ColoringResult result = new GraphColoring(instance.getGraph(), instance.getK(), options).solve();
+
+            StringBuilder answer = new StringBuilder();
+            answer.append(result.getStatus()).append(' ').append(result.getK()).append(' ').append(result.getMillis()).append('\n');
+            int[] assigned = result.getAssigned();
+            if (assigned != null) {
+                Graph graph = instance.getGraph();
+                for (int v = 0; v < graph.size(); v++){
+                    if (v > 0) answer.append(' ');
+                    answer.append(graph.getId(v)).append('=').append(assigned[v]);
+                }
+                answer.append('\n');
+            }
+            return answer.append('\n').toString();
+        }
+        catch (Exception ex){
+            return "ERROR " + String.valueOf(ex.getMessage()).replace('\n', ' ') + "\n\n";
+        }
+    }
+}
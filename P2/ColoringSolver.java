@@ -0,0 +1,653 @@
+import java.util.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * ColoringSolver --- a backtracking search for a K-coloring of one graph, with all of its state per instance.
+ * The graph is only read, so any number of solvers may share it across threads.
+ * When all colors of a frame fail, the search jumps back to the deepest level in the conflict set of the frame
+ * (conflict-directed backjumping) and stores the assignments of the conflict set as a learned nogood.
+ */
+class ColoringSolver{
+    /**
+     * Status --- the outcome of a search
+     */
+    enum Status { SATISFIABLE, UNSATISFIABLE, UNKNOWN }
+
+    /**
+     * Donor --- takes open subtrees, given as prefixes of assignments, that the search hands over to other workers
+     */
+    interface Donor{
+        boolean isHungry();
+        void donate(int[] vertices, int[] colors);
+    }
+
+    final static int DONATE_INTERVAL = 64;      // how many search steps are made between checks for hungry workers (power of 2)
+
+    private final Graph graph;                  // the graph of the CSP, shared read-only
+    private final int K;                        // the number of colors given in the CSP
+    private final SolverOptions options;        // heuristic settings of this instance
+    private final int[] offsets;                // CSR offsets of the graph, neighbours of v are in [offsets[v], offsets[v+1])
+    private final int[] neighbours;             // CSR adjacency lists of the graph
+    private final int[] assigned;               // a color assigned to every vertex, default -1
+    private final Domains domains;              // colors that are assignable to every vertex (i.e domains)
+    private final Trail trail;                  // storage for colors removed from domains, for undoing
+    private final VertexSelector selector;      // DSatur/MRV buckets for choosing the next vertex
+    private final Propagator propagator;        // AC-3 worklist engine over the arcs of the graph
+    private final SplittableRandom random;      // source of random value ordering
+    private final int[] colorCount;             // the number of vertices every color is assigned to
+    private final int[] levelOf;                // the level every vertex is assigned at, valid while assigned
+    private final Conflicts conflicts;          // reasons of removed colors and conflict sets of frames
+    private final NogoodStore nogoods;          // learned nogoods, null if learning is off
+    private final int[] learnVertices;          // scratch storage for the vertices of a new nogood
+    private final int[] learnColors;            // scratch storage for the colors of a new nogood
+    private final int[] impact;                 // scratch storage for the number of neighbours every color constrains
+    private final boolean restarting;           // whether the search restarts and breaks ties at random
+    private int conflictVertex = -1;            // the vertex wiped out by the last failed propagation, -1 if none
+    private int conflictNogood = -1;            // the nogood violated by the last failed propagation, -1 if none
+    private AtomicBoolean stop;                 // a flag other threads set to cancel the search, may be null
+    private Status status = Status.UNKNOWN;     // the outcome of the last search
+    private Donor donor;                        // receiver of split subtrees, null in a sequential search
+    private int[] hint;                         // a color every vertex tries first, e.g from an earlier coloring; may be null
+    private final SearchStats stats;            // counters of this solver, only written with instrumentation on
+    private SearchMonitor monitor;              // the budget and counters of the run, may be null
+    private long nodes = 0;                     // the number of colors assigned by the last search, reported to the monitor in batches
+
+    // ----------- Prefix Assignments, fixed before the search -----------
+    private final int[] rootVertex;             // the vertex of every prefix assignment
+    private final int[] rootColor;              // the color of every prefix assignment
+    private final int[] rootCheckpoint;         // the trail checkpoint taken before every prefix assignment
+    private int rootDepth = 0;                  // the length of the applied prefix
+
+    // ----------- Search Frames, one per depth -----------
+    private final int[] frameVertex;            // the vertex colored at every depth
+    private final int[] frameColor;             // the color currently tried at every depth, -1 if none
+    private final int[] frameNext;              // the position of the next candidate color in colorStack
+    private final int[] frameColorEnd;          // the end of the candidate colors in colorStack
+    private final int[] frameCheckpoint;        // the trail checkpoint taken before coloring the vertex
+    private int[] colorStack;                   // ordered candidate colors of all frames, stacked by depth
+    private int frameTop = -1;                  // the depth of the deepest frame, -1 if none
+
+    /**
+     * Constructor function for initializing the search state
+     * @param graph - the graph of the CSP
+     * @param K - the number of colors given in the CSP
+     * @param options - heuristic settings of this instance
+     */
+    ColoringSolver(Graph graph, int K, SolverOptions options){
+        int n = graph.size();
+        this.graph = graph;
+        this.K = K;
+        this.options = options;
+        this.offsets = graph.getOffsets();
+        this.neighbours = graph.getNeighbours();
+        this.assigned = new int[n];
+        Arrays.fill(assigned, -1);
+        this.random = new SplittableRandom(options.getSeed());
+        this.colorCount = new int[K];
+        this.levelOf = new int[n];
+        this.domains = new Domains(n, K);
+        this.trail = new Trail();
+        this.conflicts = new Conflicts(n, K);
+        this.nogoods = options.isNogoodLearning() ? new NogoodStore(n, K, assigned, levelOf, domains, conflicts) : null;
+        this.learnVertices = new int[NogoodStore.MAX_LENGTH];
+        this.learnColors = new int[NogoodStore.MAX_LENGTH];
+        this.impact = new int[K];
+        this.restarting = options.getRestarts() != SolverOptions.Restarts.NONE;
+        this.selector = new VertexSelector(graph, domains, options.getVertexOrder(), random, restarting);
+        this.stats = new SearchStats();
+        this.propagator = new Propagator(graph, domains, trail, selector, conflicts, stats);
+        this.frameVertex = new int[n];
+        this.frameColor = new int[n];
+        this.frameNext = new int[n];
+        this.frameColorEnd = new int[n];
+        this.frameCheckpoint = new int[n];
+        this.colorStack = new int[Math.max(16, K * 64)];
+        this.rootVertex = new int[n];
+        this.rootColor = new int[n];
+        this.rootCheckpoint = new int[n];
+    }
+
+    /**
+     * Getter and setter functions for class variables
+     */
+
+    public int[] getAssigned(){
+        return assigned;
+    }
+
+    public SolverOptions getOptions(){
+        return options;
+    }
+
+    public Status getStatus(){
+        return status;
+    }
+
+    public void setStop(AtomicBoolean stop){
+        this.stop = stop;
+    }
+
+    public void setHint(int[] hint){
+        this.hint = hint;
+    }
+
+    public void setDonor(Donor donor){
+        this.donor = donor;
+    }
+
+    public SearchStats getStats(){
+        return stats;
+    }
+
+    public void setMonitor(SearchMonitor monitor){
+        if (monitor != null && monitor != this.monitor) monitor.register(stats);
+        this.monitor = monitor;
+    }
+
+    /**
+     * Checks if assignment of the color to the vertex is safe considering its neighbors
+     * @param color - the assigned color to the vertex
+     * @param v - index of the vertex
+     * @return boolean value
+     */
+    public boolean isSafe(int color, int v){
+        // if any of the adjacent vertices has the same color, it is not safe
+        for (int p = offsets[v], end = offsets[v + 1]; p < end; p++){
+            if (assigned[neighbours[p]] == color) return false;
+        }
+        // otherwise, safe
+        return true;
+    }
+
+    /**
+     * Finds an adjacent vertex that already has the color
+     * @param color - the color to check
+     * @param v - index of the vertex
+     * @return index of the adjacent vertex, or -1 if the color is safe
+     */
+    private int conflictingNeighbour(int color, int v){
+        for (int p = offsets[v], end = offsets[v + 1]; p < end; p++){
+            if (assigned[neighbours[p]] == color) return neighbours[p];
+        }
+        return -1;
+    }
+
+    /**
+     * Restores CSP to the state where colors were not deleted from domains
+     * @param v - index of currently processing vertex
+     * @param color - the assigned color to the vertex
+     * @param checkpoint - the trail checkpoint taken before the color was assigned
+     */
+    public void restorePreviousState(int v, int color, int checkpoint){
+        // return every color removed since the checkpoint (FC and AC-3) to its vertex
+        while (trail.isAbove(checkpoint)) {
+            int u = trail.topVertex();
+            domains.add(u, trail.topColor());
+            selector.update(u);
+            trail.pop();
+        }
+
+        // remove assignment of the color to the vertex
+        assigned[v] = -1;
+        colorCount[color]--;
+        selector.unassign(v, color);
+    }
+
+    /**
+     * Orders the colors in the domain of the vertex by how many uncolored neighbours still have them in their
+     * domains, fewest first, so the first color rules out the fewest options of the neighbours. Ties keep the
+     * ascending order, or a random one if the search restarts. The colors are written to the color stack and
+     * no memory is allocated.
+     * @param v - index of the vertex whose domain is sorted
+     * @param start - the position of the color stack the colors are written from
+     * @return the position after the last color written
+     */
+    public int leastConstrainingColors(int v, int start){
+        int end = start;
+        for (int color = domains.next(v, 0); color != -1; color = domains.next(v, color + 1)){
+            if (end == colorStack.length) colorStack = Arrays.copyOf(colorStack, colorStack.length * 2);
+            colorStack[end++] = color;
+            impact[color] = 0;
+        }
+        if (end - start <= 1) return end;
+
+        // count the colors shared with every uncolored neighbour, a word of the domains at a time
+        int words = domains.getWords();
+        for (int p = offsets[v], last = offsets[v + 1]; p < last; p++){
+            int u = neighbours[p];
+            if (assigned[u] != -1) continue;
+            for (int i = 0; i < words; i++){
+                for (long common = domains.word(u, i) & domains.word(v, i); common != 0; common &= common - 1)
+                    impact[(i << 6) + Long.numberOfTrailingZeros(common)]++;
+            }
+        }
+
+        // insertion sort, domains are small; it is stable, so shuffling first breaks the ties at random
+        if (restarting) shuffle(start, end);
+        for (int i = start + 1; i < end; i++){
+            int color = colorStack[i];
+            int j = i - 1;
+            for (; j >= start && impact[colorStack[j]] > impact[color]; j--) colorStack[j + 1] = colorStack[j];
+            colorStack[j + 1] = color;
+        }
+        return end;
+    }
+
+    /**
+     * Fisher-Yates shuffle of a range of the color stack
+     * @param start - the first position of the range
+     * @param end - the position after the range
+     */
+    private void shuffle(int start, int end){
+        for (int i = end - 1; i > start; i--){
+            int j = start + random.nextInt(i - start + 1);
+            int swap = colorStack[i]; colorStack[i] = colorStack[j]; colorStack[j] = swap;
+        }
+    }
+
+    /**
+     * Pushes a search frame for the vertex with its candidate colors ordered by the value order
+     * @param depth - the depth of the new frame
+     * @param v - index of the vertex to be colored
+     */
+    private void pushFrame(int depth, int v){
+        int start = depth == 0 ? 0 : frameColorEnd[depth - 1]; // candidates are stacked above the parent's
+        int end = start + domains.size(v);
+        if (end > colorStack.length) colorStack = Arrays.copyOf(colorStack, Math.max(colorStack.length * 2, end));
+
+        if (options.getValueOrder() == SolverOptions.ValueOrder.LEAST_CONSTRAINING) {
+            leastConstrainingColors(v, start); // get least constraining colors to assign
+        }
+        else {
+            int i = start;
+            for (int color = domains.next(v, 0); color != -1; color = domains.next(v, color + 1)) colorStack[i++] = color;
+            if (options.getValueOrder() == SolverOptions.ValueOrder.RANDOM) shuffle(start, end);
+        }
+
+        // the hinted color goes first, ahead of the symmetry filter so that it is kept even if unused
+        if (hint != null && hint[v] >= 0 && hint[v] < K) {
+            for (int i = start; i < end; i++){
+                if (colorStack[i] != hint[v]) continue;
+                System.arraycopy(colorStack, start, colorStack, start + 1, i - start);
+                colorStack[start] = hint[v];
+                break;
+            }
+        }
+
+        // Symmetry Breaking: colors not used by any vertex are interchangeable, so only the first of them is tried
+        if (options.isSymmetryBreaking()) {
+            boolean unusedTried = false;
+            int write = start;
+            for (int i = start; i < end; i++){
+                int color = colorStack[i];
+                if (colorCount[color] == 0) {
+                    if (unusedTried) continue;
+                    unusedTried = true;
+                }
+                colorStack[write++] = color;
+            }
+            end = write;
+        }
+
+        frameVertex[depth] = v;
+        frameNext[depth] = start;
+        frameColorEnd[depth] = end;
+        frameColor[depth] = -1;
+        frameCheckpoint[depth] = trail.checkpoint();
+        conflicts.resetFrame(depth);
+    }
+
+    /**
+     * Removes the color from the domain of the vertex, recording the reason
+     * @param u - index of the vertex
+     * @param color - the color to remove
+     * @param reason - the reason encoded by Conflicts
+     * @return false if the domain has been wiped out
+     */
+    private boolean removeColor(int u, int color, int reason){
+        if (domains.remove(u, color)) {
+            trail.push(u, color);
+            conflicts.setReason(u, color, reason);
+            selector.update(u);
+            propagator.touch(u); // queue its arcs if it has become a singleton
+        }
+        if (domains.size(u) != 0) return true;
+        conflictVertex = u;
+        propagator.clear();
+        return false;
+    }
+
+    /**
+     * Assigns the color to the vertex and propagates it with FC, learned nogoods and AC3
+     * The caller restores the state from the checkpoint taken before the call, also on failure.
+     * @param v - index of the vertex
+     * @param color - the color to assign
+     * @param level - the level of the assignment
+     * @return false if a domain has been wiped out or a nogood has been violated
+     */
+    private boolean propagateAssignment(int v, int color, int level){
+        assigned[v] = color; // assign the current color to the current vertex
+        levelOf[v] = level;
+        colorCount[color]++;
+        selector.assign(v, color);
+        conflictVertex = -1;
+        conflictNogood = -1;
+
+        // ----------- Processing Adjacent Vertices -----------
+        for (int p = offsets[v], end = offsets[v + 1]; p < end; p++){
+            // Forward Checking: if any value has no values, terminate
+            if (!removeColor(neighbours[p], color, Conflicts.level(level))) return false;
+        }
+        // ----------- End Processing Adjacent Vertices -----------
+
+        // Nogood Checking: a violated nogood fails, a nogood with one literal left forbids it
+        if (nogoods != null) {
+            conflictNogood = nogoods.propagate(v, color);
+            if (conflictNogood != -1) {propagator.clear(); return false;}
+            for (int i = 0; i < nogoods.getUnitCount(); i++){
+                if (!removeColor(nogoods.getUnitVertex(i), nogoods.getUnitColor(i), Conflicts.nogood(nogoods.getUnitNogood(i))))
+                    return false;
+            }
+        }
+
+        // Arc Consistency Checking, starting from the arcs of the changed neighbours
+        if (propagator.AC3()) return true;
+        conflictVertex = propagator.getWipedOut();
+        return false;
+    }
+
+    /**
+     * Puts the levels explaining the last failed propagation into the scratch set of the conflicts
+     */
+    private void explainFailure(){
+        conflicts.clear();
+        if (conflictNogood != -1) nogoods.explain(conflictNogood, conflicts);
+        else conflicts.explainVertex(conflictVertex, domains, nogoods);
+    }
+
+    /**
+     * Getter functions for the assignment at a level
+     */
+
+    private int vertexAt(int level){
+        return level < rootDepth ? rootVertex[level] : frameVertex[level - rootDepth];
+    }
+
+    private int colorAt(int level){
+        return level < rootDepth ? rootColor[level] : frameColor[level - rootDepth];
+    }
+
+    /**
+     * Stores the assignments of the levels in the scratch set of the conflicts as a nogood, deepest first
+     */
+    private void learn(){
+        int bound = conflicts.getBound();
+        int size = bound + 1;
+        for (int i = 0; i < conflicts.size(); i++) if (conflicts.levelAt(i) > bound) size++;
+        if (size == 0 || size > NogoodStore.MAX_LENGTH) return;
+
+        int write = 0;
+        for (int i = 0; i < conflicts.size(); i++) if (conflicts.levelAt(i) > bound) learnVertices[write++] = conflicts.levelAt(i);
+        for (int l = 0; l <= bound; l++) learnVertices[write++] = l;
+        Arrays.sort(learnVertices, 0, size);
+
+        // turn the levels into literals, deepest first, so the deepest two are watched
+        for (int i = 0, j = size - 1; i < j; i++, j--){
+            int swap = learnVertices[i]; learnVertices[i] = learnVertices[j]; learnVertices[j] = swap;
+        }
+        for (int i = 0; i < size; i++){
+            learnColors[i] = colorAt(learnVertices[i]);
+            learnVertices[i] = vertexAt(learnVertices[i]);
+        }
+        nogoods.add(learnVertices, learnColors, size);
+    }
+
+    /**
+     * Fixes a prefix of assignments below which the search will run
+     * @param vertices - indexes of the vertices of the prefix, in order
+     * @param colors - the colors of the vertices
+     * @param length - the length of the prefix
+     * @return false if the prefix is inconsistent; reset() has to be called in any case
+     */
+    public boolean applyPrefix(int[] vertices, int[] colors, int length){
+        for (int i = 0; i < length; i++){
+            int v = vertices[i], color = colors[i];
+            if (assigned[v] != -1 || !domains.contains(v, color) || !isSafe(color, v)) return false;
+            rootVertex[rootDepth] = v;
+            rootColor[rootDepth] = color;
+            rootCheckpoint[rootDepth] = trail.checkpoint();
+            if (!propagateAssignment(v, color, rootDepth++)) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Restores the initial state, with no prefix and no colored vertex, so the instance can be reused
+     */
+    public void reset(){
+        for (; frameTop >= 0; frameTop--){
+            if (frameColor[frameTop] != -1) restorePreviousState(frameVertex[frameTop], frameColor[frameTop], frameCheckpoint[frameTop]);
+        }
+        while (rootDepth > 0){
+            rootDepth--;
+            restorePreviousState(rootVertex[rootDepth], rootColor[rootDepth], rootCheckpoint[rootDepth]);
+        }
+        status = Status.UNKNOWN;
+    }
+
+    /**
+     * Gives the untried colors of the shallowest open frame away as subtrees to be searched by the donor
+     */
+    private void donateShallowest(){
+        for (int depth = 0; depth <= frameTop; depth++){
+            if (frameNext[depth] >= frameColorEnd[depth]) continue;
+
+            // the prefix of a donated subtree is the own prefix followed by the frames above
+            int length = rootDepth + depth + 1;
+            for (int i = frameNext[depth]; i < frameColorEnd[depth]; i++){
+                int[] vertices = new int[length];
+                int[] colors = new int[length];
+                System.arraycopy(rootVertex, 0, vertices, 0, rootDepth);
+                System.arraycopy(rootColor, 0, colors, 0, rootDepth);
+                System.arraycopy(frameVertex, 0, vertices, rootDepth, depth);
+                System.arraycopy(frameColor, 0, colors, rootDepth, depth);
+                vertices[length - 1] = frameVertex[depth];
+                colors[length - 1] = colorStack[i];
+                donor.donate(vertices, colors);
+            }
+            frameNext[depth] = frameColorEnd[depth];
+            conflicts.taint(depth); // the given away colors are not refuted by this search
+            return;
+        }
+    }
+
+    /**
+     * Undoes the assignments of all frames through the trail, leaving only the prefix
+     */
+    private void unwind(){
+        for (; frameTop >= 0; frameTop--){
+            if (frameColor[frameTop] != -1) restorePreviousState(frameVertex[frameTop], frameColor[frameTop], frameCheckpoint[frameTop]);
+            frameColor[frameTop] = -1;
+        }
+    }
+
+    /**
+     * Computes the number of failures allowed before the next restart
+     * @param restarts - the number of restarts so far
+     * @return the restart base times the Luby sequence 1,1,2,1,1,2,4,... or times 1.5 to the power of restarts
+     */
+    private long restartCutoff(int restarts){
+        if (options.getRestarts() == SolverOptions.Restarts.GEOMETRIC)
+            return (long) (options.getRestartBase() * Math.pow(1.5, restarts));
+
+        // find the finite subsequence holding the index, then the position within it
+        long size = 1;
+        int power = 0;
+        while (size < restarts + 1){
+            power++;
+            size = 2 * size + 1;
+        }
+        for (long i = restarts; size - 1 != i; ){
+            size = (size - 1) >> 1;
+            power--;
+            i %= size;
+        }
+        return (long) options.getRestartBase() << power;
+    }
+
+    /**
+     * Leaves the exhausted frame, learning its conflict set, and unwinds to the deepest level of the set
+     * @param depth - the depth of the exhausted frame
+     * @return false if the set only holds prefix levels, i.e no coloring exists below the prefix
+     */
+    private boolean backjump(int depth){
+        // the colors missing from the domain since the frame was pushed complete the conflict set
+        conflicts.clear();
+        conflicts.explainVertex(frameVertex[depth], domains, nogoods);
+        conflicts.mergeIntoFrame(depth, rootDepth + depth);
+
+        conflicts.loadFrame(depth);
+        boolean tainted = conflicts.isTainted(depth);
+        if (tainted) conflicts.addBound(rootDepth + depth - 1); // colors given away may need any level
+        else if (nogoods != null) learn();
+
+        int jumpLevel = conflicts.maxLevel();
+        int jumpDepth = Math.max(jumpLevel - rootDepth, -1);
+
+        // undo the frames between, they have no part in the failure
+        for (int d = depth - 1; d > jumpDepth; d--){
+            restorePreviousState(frameVertex[d], frameColor[d], frameCheckpoint[d]);
+            frameColor[d] = -1;
+        }
+        frameTop = jumpDepth;
+        if (jumpDepth < 0) return false;
+
+        conflicts.mergeIntoFrame(jumpDepth, jumpLevel);
+        if (tainted) conflicts.taint(jumpDepth);
+        return true;
+    }
+
+    /**
+     * Searches for a coloring below the prefix and remembers the outcome
+     * @return SATISFIABLE, UNSATISFIABLE, or UNKNOWN if the search has been cancelled
+     */
+    public Status solve(){
+        ColoringEvents.Search event = SearchStats.ENABLED ? new ColoringEvents.Search() : null;
+        if (event != null) event.begin();
+        status = search();
+        // the nodes of the last, incomplete batch count against the budget as well
+        if (monitor != null && (nodes & (SearchMonitor.CHECK_INTERVAL - 1)) != 0) monitor.spend(nodes & (SearchMonitor.CHECK_INTERVAL - 1));
+        if (event != null && event.shouldCommit()) {
+            event.vertices = graph.size();
+            event.status = status.toString();
+            event.nodes = stats.nodes;
+            event.backtracks = stats.backtracks;
+            event.revisions = stats.revisions;
+            event.wipeouts = stats.wipeouts;
+            event.restarts = stats.restarts;
+            event.maxDepth = stats.maxDepth;
+            event.propagationNanos = stats.propagationNanos;
+            event.commit();
+        }
+        return status;
+    }
+
+    /**
+     * Colors the graph depth first with an explicit stack of frames, checking FC and AC3 after every assignment
+     * @return Status
+     */
+    private Status search(){
+        nodes = 0;
+        int first = selector.select();
+        // if there is no left vertex to color
+        if (first == -1)
+            return Status.SATISFIABLE;
+
+        long steps = 0;
+        long failures = 0, cutoff = restartCutoff(0); // failed propagations since the last restart and their limit
+        int restarts = 0;
+        frameTop = 0;
+        pushFrame(frameTop, first);
+
+        while (frameTop >= 0){
+            // stop cooperatively once another solver has finished or the budget of the run is spent
+            if (stop != null && stop.get()) return Status.UNKNOWN;
+
+            // split the tree when other workers run out of work
+            if (donor != null && (++steps & (DONATE_INTERVAL - 1)) == 0 && donor.isHungry()) donateShallowest();
+
+            int depth = frameTop;
+            int v = frameVertex[depth];
+
+            // restore the previous state if the last color of the frame lead to no solution
+            if (frameColor[depth] != -1) {
+                restorePreviousState(v, frameColor[depth], frameCheckpoint[depth]);
+                frameColor[depth] = -1;
+            }
+
+            // find the next color in available colors for the vertex that is safe to assign
+            int color = -1;
+            while (frameNext[depth] < frameColorEnd[depth]){
+                int candidate = colorStack[frameNext[depth]++];
+                int neighbour = conflictingNeighbour(candidate, v);
+                if (neighbour == -1) {color = candidate; break;}
+                conflicts.clear();
+                conflicts.addLevel(levelOf[neighbour]);
+                conflicts.mergeIntoFrame(depth, rootDepth + depth);
+            }
+
+            // no color has been assigned to the vertex, jump back to the deepest level of the conflict set
+            if (color == -1) {
+                if (SearchStats.ENABLED) stats.backtracks++;
+                if (!backjump(depth)) {
+                    frameTop = -1;
+                    return Status.UNSATISFIABLE;
+                }
+                continue;
+            }
+
+            // every assigned color is a node of the budget of the run
+            if ((++nodes & (SearchMonitor.CHECK_INTERVAL - 1)) == 0 && monitor != null && monitor.spend(SearchMonitor.CHECK_INTERVAL))
+                return Status.UNKNOWN;
+
+            frameColor[depth] = color;
+            long start = 0;
+            if (SearchStats.ENABLED) {
+                stats.nodes++;
+                stats.maxDepth = Math.max(stats.maxDepth, rootDepth + depth + 1);
+                start = System.nanoTime();
+            }
+            boolean consistent = propagateAssignment(v, color, rootDepth + depth);
+            if (SearchStats.ENABLED) {
+                stats.propagationNanos += System.nanoTime() - start;
+                if (!consistent && conflictVertex != -1) stats.wipeouts++;
+            }
+            if (!consistent) {
+                // the reasons of the failure, without the current level, join the conflict set of the frame
+                explainFailure();
+                conflicts.mergeIntoFrame(depth, rootDepth + depth);
+                if (conflictVertex != -1) selector.bump(conflictVertex);
+
+                // Restarting: start over from the prefix, keeping nogoods and weights; split trees never restart
+                if (restarting && donor == null && ++failures >= cutoff) {
+                    unwind();
+                    failures = 0;
+                    cutoff = restartCutoff(++restarts);
+                    if (SearchStats.ENABLED) stats.restarts++;
+                    first = selector.select();
+                    frameTop = 0;
+                    pushFrame(frameTop, first);
+                }
+                continue;
+            }
+
+            // go deeper with the vertex with the minimum remaining values over the whole graph
+            int next = selector.select();
+            if (next == -1) return Status.SATISFIABLE;
+            pushFrame(++frameTop, next);
+        }
+
+        // no color has been assigned to the first vertex
+        return Status.UNSATISFIABLE;
+    }
+}
@@ -0,0 +1,134 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * ComponentSolver --- splits the graph into its connected components and colors each of them
+ * as an independent sub-instance on a bounded thread pool, largest first, merging the colorings.
+ */
+class ComponentSolver{
+    private final Graph graph;                  // the graph of the CSP, shared read-only
+    private final int K;                        // the number of colors given in the CSP
+    private final int threads;                  // the number of threads solving components
+    private final SolverOptions options;        // heuristic settings of every component solver
+    private final int[] assigned;               // the merged coloring of the whole graph, default -1
+    private int componentCount = 0;             // the number of components found by the last solve()
+    private SearchMonitor monitor;              // the budget and counters of the run, may be null
+
+    /**
+     * Constructor function for initializing variables
+     * @param graph - the graph of the CSP
+     * @param K - the number of colors given in the CSP
+     * @param threads - the number of threads solving components
+     * @param options - heuristic settings of every component solver
+     */
+    ComponentSolver(Graph graph, int K, int threads, SolverOptions options){
+        this.graph = graph;
+        this.K = K;
+        this.threads = Math.max(1, threads);
+        this.options = options;
+        this.assigned = new int[graph.size()];
+        Arrays.fill(assigned, -1);
+    }
+
+    /**
+     * Groups the vertices by their components
+     * @param componentOf - the component of every vertex
+     * @return indexes of the vertices of every component in ascending order
+     */
+    private static int[][] members(int[] componentOf){
+        int count = 0;
+        for (int c : componentOf) count = Math.max(count, c + 1);
+        int[] sizes = new int[count];
+        for (int c : componentOf) sizes[c]++;
+
+        int[][] members = new int[count][];
+        for (int c = 0; c < count; c++) members[c] = new int[sizes[c]];
+        Arrays.fill(sizes, 0);
+        for (int v = 0; v < componentOf.length; v++) members[componentOf[v]][sizes[componentOf[v]]++] = v;
+        return members;
+    }
+
+    /**
+     * Colors every component, stopping at the first one that cannot be colored
+     * @return SATISFIABLE if every component has been colored, UNSATISFIABLE if one cannot be colored,
+     *         UNKNOWN if the budget of the monitor has run out
+     * @throws InterruptedException - if the waiting thread is interrupted
+     * @throws ExecutionException - if a component solver has failed with an exception
+     */
+    public ColoringSolver.Status solve() throws InterruptedException, ExecutionException{
+        int[][] members = members(graph.components());
+        componentCount = members.length;
+
+        // build the sub-instances and order them by the number of arcs, the largest (usually hardest) first
+        int[] localIndex = new int[graph.size()];
+        Graph[] subgraphs = new Graph[members.length];
+        Integer[] order = new Integer[members.length];
+        for (int c = 0; c < members.length; c++){
+            subgraphs[c] = graph.subgraph(members[c], localIndex);
+            order[c] = c;
+        }
+        Arrays.sort(order, (a, b) -> Integer.compare(subgraphs[b].arcCount(), subgraphs[a].arcCount()));
+
+        AtomicBoolean stop = new AtomicBoolean(false);   // set once a component cannot be colored
+        AtomicBoolean unsatisfiable = new AtomicBoolean(false);
+        AtomicBoolean unknown = new AtomicBoolean(false);
+        ExecutorService pool = Executors.newFixedThreadPool(Math.max(1, Math.min(threads, members.length)));
+        List<Future<?>> futures = new ArrayList<>();
+        try {
+            for (int c : order){
+                futures.add(pool.submit(() -> {
+                    if (stop.get()) return;
+                    // small components finish within one batch of nodes, so the budget is checked before each of them
+                    if (monitor != null && monitor.spend(0)) {
+                        unknown.set(true);
+                        stop.set(true);
+                        return;
+                    }
+                    ColoringSolver solver = new ColoringSolver(subgraphs[c], K, options);
+                    solver.setStop(stop);
+                    solver.setMonitor(monitor);
+                    ColoringSolver.Status status = solver.solve();
+                    if (status == ColoringSolver.Status.UNSATISFIABLE) {
+                        unsatisfiable.set(true);
+                        stop.set(true);
+                    }
+                    else if (status == ColoringSolver.Status.SATISFIABLE) {
+                        // components are disjoint, so every task writes its own part of the merged coloring
+                        int[] local = solver.getAssigned();
+                        for (int i = 0; i < local.length; i++) assigned[members[c][i]] = local[i];
+                    }
+                    else {
+                        unknown.set(true);
+                        stop.set(true);
+                    }
+                }));
+            }
+            for (Future<?> future : futures) future.get();
+        }
+        finally {
+            pool.shutdownNow();
+        }
+
+        if (unsatisfiable.get()) return ColoringSolver.Status.UNSATISFIABLE;
+        return unknown.get() ? ColoringSolver.Status.UNKNOWN : ColoringSolver.Status.SATISFIABLE;
+    }
+
+    /**
+     * Getter and setter functions for class variables
+     */
+
+    public int[] getAssigned(){
+        return assigned;
+    }
+
+    public int getComponentCount(){
+        return componentCount;
+    }
+
+    public void setMonitor(SearchMonitor monitor){
+        this.monitor = monitor;
+    }
+}
@@ -0,0 +1,237 @@
+import java.util.Arrays;
+
+/**
+ * Conflicts --- reasons of domain removals and conflict sets of search frames for conflict-directed backjumping.
+ * Levels number the assignments of a branch from the root: prefix assignments first, then search frames.
+ * A reason is encoded as (payload << 2) | tag:
+ *   LEVEL(l) - removed by forward checking from the assignment at level l,
+ *   VIA(y)   - removed by AC-3 because vertex y had become a singleton, explained by the removals of y,
+ *   NOGOOD(i) - forbidden by the learned nogood i, explained by the assignments of its other literals.
+ * A conflict set is a list of explicit levels together with a bound m meaning every level 0..m (-1 if none).
+ */
+class Conflicts{
+    final static int LEVEL = 0, VIA = 1, NOGOOD = 2;
+
+    private final int K;                    // the number of colors given in the CSP
+    private final int[] reasons;            // reasons[v*K+c] - why c is not in the domain of v
+    private final int[] vertexStamp;        // visit marks of vertices while explaining
+    private final int[] levelStamp;         // marks of levels already in the set being built
+    private int stamp = 0;                  // the current mark
+    private int[] stack;                    // vertices waiting to be explained
+
+    // ----------- The set being built (scratch) -----------
+    private int[] levels;                   // explicit levels of the scratch set
+    private int size = 0;                   // the number of explicit levels of the scratch set
+    private int bound = -1;                 // the bound of the scratch set
+
+    // ----------- Conflict sets of frames -----------
+    private int[][] frameLevels;            // explicit levels of the set of every frame, allocated on demand
+    private final int[] frameSize;          // the number of explicit levels of every frame
+    private final int[] frameBound;         // the bound of every frame
+    private final boolean[] frameTainted;   // whether a failure below the frame has not been fully explained
+
+    /**
+     * Constructor function for initializing variables
+     * @param n - the number of vertices
+     * @param K - the number of colors given in the CSP
+     */
+    Conflicts(int n, int K){
+        this.K = K;
+        this.reasons = new int[n * K];
+        this.vertexStamp = new int[n];
+        this.levelStamp = new int[n];
+        this.stack = new int[16];
+        this.levels = new int[16];
+        this.frameLevels = new int[n][];
+        this.frameSize = new int[n];
+        this.frameBound = new int[n];
+        this.frameTainted = new boolean[n];
+    }
+
+    /**
+     * Encoding functions for reasons
+     */
+
+    static int level(int l){
+        return (l << 2) | LEVEL;
+    }
+
+    static int via(int y){
+        return (y << 2) | VIA;
+    }
+
+    static int nogood(int id){
+        return (id << 2) | NOGOOD;
+    }
+
+    /**
+     * Getter and setter functions for reasons
+     */
+
+    public int getReason(int v, int color){
+        return reasons[v * K + color];
+    }
+
+    public void setReason(int v, int color, int reason){
+        reasons[v * K + color] = reason;
+    }
+
+    /**
+     * Returns a fresh mark, clearing old marks when the counter wraps around
+     * @return int
+     */
+    private int nextStamp(){
+        if (++stamp == Integer.MAX_VALUE) {
+            stamp = 1;
+            Arrays.fill(vertexStamp, 0);
+            Arrays.fill(levelStamp, 0);
+        }
+        return stamp;
+    }
+
+    /**
+     * Starts a new scratch set
+     */
+    public void clear(){
+        size = 0;
+        bound = -1;
+        nextStamp();
+    }
+
+    /**
+     * Adds a level to the scratch set
+     * @param l - the level
+     */
+    public void addLevel(int l){
+        if (l < 0 || l <= bound || levelStamp[l] == stamp) return;
+        levelStamp[l] = stamp;
+        if (size == levels.length) levels = Arrays.copyOf(levels, size * 2);
+        levels[size++] = l;
+    }
+
+    /**
+     * Widens the bound of the scratch set
+     * @param m - every level 0..m is added
+     */
+    public void addBound(int m){
+        bound = Math.max(bound, m);
+    }
+
+    /**
+     * Adds the reasons of every value missing from the domain of the vertex to the scratch set,
+     * following VIA reasons through the vertices that had become singletons
+     * @param u - index of the vertex
+     * @param domains - domains of all vertices
+     * @param nogoods - the nogoods NOGOOD reasons refer to, null if there are none
+     */
+    public void explainVertex(int u, Domains domains, NogoodStore nogoods){
+        int top = 0;
+        if (vertexStamp[u] == stamp) return;
+        vertexStamp[u] = stamp;
+        stack[top++] = u;
+        while (top > 0){
+            int v = stack[--top];
+            for (int color = 0; color < K; color++){
+                if (domains.contains(v, color)) continue;
+                int reason = reasons[v * K + color];
+                int payload = reason >> 2;
+                int tag = reason & 3;
+                if (tag == LEVEL) addLevel(payload);
+                else if (tag == NOGOOD) nogoods.explain(payload, this);
+                else if (vertexStamp[payload] != stamp) {
+                    vertexStamp[payload] = stamp;
+                    if (top == stack.length) stack = Arrays.copyOf(stack, top * 2);
+                    stack[top++] = payload;
+                }
+            }
+        }
+    }
+
+    /**
+     * Getter functions for the scratch set
+     */
+
+    public int size(){
+        return size;
+    }
+
+    public int levelAt(int i){
+        return levels[i];
+    }
+
+    public int getBound(){
+        return bound;
+    }
+
+    /**
+     * Empties the set of the frame
+     * @param frame - the frame depth
+     */
+    public void resetFrame(int frame){
+        frameSize[frame] = 0;
+        frameBound[frame] = -1;
+        frameTainted[frame] = false;
+    }
+
+    /**
+     * Adds the scratch set to the set of the frame
+     * @param frame - the frame depth
+     * @param below - the level of the frame; only smaller levels are kept
+     */
+    public void mergeIntoFrame(int frame, int below){
+        int[] target = frameLevels[frame];
+        if (target == null) target = frameLevels[frame] = new int[Math.max(4, size)];
+        int fb = Math.max(frameBound[frame], Math.min(bound, below - 1));
+        frameBound[frame] = fb;
+
+        // mark the levels already in the frame, dropping those the new bound covers
+        int write = 0;
+        int mark = nextStamp();
+        for (int i = 0; i < frameSize[frame]; i++){
+            int l = target[i];
+            if (l <= fb) continue;
+            levelStamp[l] = mark;
+            target[write++] = l;
+        }
+        for (int i = 0; i < size; i++){
+            int l = levels[i];
+            if (l >= below || l <= fb || levelStamp[l] == mark) continue;
+            levelStamp[l] = mark;
+            if (write == target.length) target = frameLevels[frame] = Arrays.copyOf(target, write * 2);
+            target[write++] = l;
+        }
+        frameSize[frame] = write;
+    }
+
+    /**
+     * Loads the set of the frame into the scratch set
+     * @param frame - the frame depth
+     */
+    public void loadFrame(int frame){
+        clear();
+        addBound(frameBound[frame]);
+        for (int i = 0; i < frameSize[frame]; i++) addLevel(frameLevels[frame][i]);
+    }
+
+    /**
+     * Finds the deepest level of the scratch set
+     * @return the level, or -1 if the set is empty
+     */
+    public int maxLevel(){
+        int max = bound;
+        for (int i = 0; i < size; i++) max = Math.max(max, levels[i]);
+        return max;
+    }
+
+    /**
+     * Getter and setter functions for frame flags
+     */
+
+    public boolean isTainted(int frame){
+        return frameTainted[frame];
+    }
+
+    public void taint(int frame){
+        frameTainted[frame] = true;
+    }
+}
@@ -0,0 +1,124 @@
+import java.util.Arrays;
+
+/**
+ * CoreReduction --- removes the vertices that can always be colored last. A vertex with fewer than K neighbours
+ * has a free color whatever its neighbours get, so it is peeled off together with its edges, repeatedly, until
+ * only the K-core is left. The search colors the core; the peeled vertices are then put back in reverse order
+ * of removal, each taking the smallest color its (fewer than K) neighbours present at its removal leave free.
+ */
+class CoreReduction{
+    private final Graph graph;                  // the whole graph
+    private final int K;                        // the number of colors given in the CSP
+    private final int[] peeled;                 // the removed vertices, in order of removal
+    private final int[] kept;                   // vertices of the K-core in ascending order
+    private final Graph core;                   // the subgraph induced by the K-core
+
+    /**
+     * Constructor function for initializing variables; peels the graph
+     * @param graph - the whole graph
+     * @param K - the number of colors given in the CSP
+     */
+    CoreReduction(Graph graph, int K){
+        this.graph = graph;
+        this.K = K;
+        int n = graph.size();
+        int[] offsets = graph.getOffsets();
+        int[] neighbours = graph.getNeighbours();
+
+        // ----------- Degree Buckets -----------
+        // vertices sorted by current degree, bucketStart[d] is the position of the first vertex of degree d
+        int[] degree = new int[n];
+        int maxDegree = 0;
+        for (int v = 0; v < n; v++){
+            degree[v] = graph.degree(v);
+            maxDegree = Math.max(maxDegree, degree[v]);
+        }
+        int[] bucketStart = new int[maxDegree + 2];
+        for (int v = 0; v < n; v++) bucketStart[degree[v] + 1]++;
+        for (int d = 0; d <= maxDegree; d++) bucketStart[d + 1] += bucketStart[d];
+        int[] order = new int[n];
+        int[] position = new int[n];
+        int[] fill = Arrays.copyOf(bucketStart, maxDegree + 1);
+        for (int v = 0; v < n; v++){
+            position[v] = fill[degree[v]]++;
+            order[position[v]] = v;
+        }
+
+        // ----------- Peeling -----------
+        // always remove a vertex of the smallest current degree while it is below K
+        boolean[] removed = new boolean[n];
+        int count = 0;
+        for (; count < n; count++){
+            int v = order[count];
+            if (degree[v] >= K) break; // every vertex left has at least K neighbours left
+            removed[v] = true;
+            for (int p = offsets[v], end = offsets[v + 1]; p < end; p++){
+                int u = neighbours[p];
+                if (removed[u] || degree[u] <= degree[v]) continue;
+                // swap u with the first vertex of its bucket, then move the bucket boundary past it
+                int d = degree[u];
+                int first = bucketStart[d];
+                int w = order[first];
+                if (u != w) {
+                    order[position[u]] = w;
+                    position[w] = position[u];
+                    order[first] = u;
+                    position[u] = first;
+                }
+                bucketStart[d]++;
+                degree[u]--;
+            }
+        }
+        this.peeled = Arrays.copyOf(order, count);
+
+        int[] kept = new int[n - count];
+        int write = 0;
+        for (int v = 0; v < n; v++) if (!removed[v]) kept[write++] = v;
+        this.kept = kept;
+        this.core = count == 0 ? graph : graph.induced(kept);
+    }
+
+    /**
+     * Extends a coloring of the core to the whole graph
+     * @param coreAssigned - colors of the vertices of the core, by their index in the core
+     * @return colors of all vertices of the graph
+     */
+    public int[] restore(int[] coreAssigned){
+        int n = graph.size();
+        int[] offsets = graph.getOffsets();
+        int[] neighbours = graph.getNeighbours();
+        int[] assigned = new int[n];
+        Arrays.fill(assigned, -1);
+        for (int i = 0; i < kept.length; i++) assigned[kept[i]] = coreAssigned[i];
+
+        // the neighbours colored before a peeled vertex are exactly those left at its removal, fewer than K
+        int[] mark = new int[K + 1];
+        for (int i = peeled.length - 1; i >= 0; i--){
+            int v = peeled[i];
+            for (int p = offsets[v], end = offsets[v + 1]; p < end; p++){
+                int color = assigned[neighbours[p]];
+                if (color != -1) mark[color] = i + 1;
+            }
+            int color = 0;
+            while (mark[color] == i + 1) color++;
+            assigned[v] = color;
+        }
+        return assigned;
+    }
+
+    /**
+     * Getter functions for class variables
+     */
+
+    public Graph getCore(){
+        return core;
+    }
+
+    public int[] getKept(){
+        return kept;
+    }
+
+    public int getPeeledCount(){
+        return peeled.length;
+    }
+}
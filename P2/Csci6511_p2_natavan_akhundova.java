@@ -1,264 +1,28 @@
 import java.io.BufferedReader;
-import java.io.FileReader;
+import java.io.File;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
 import java.util.*;
 
-/**
- * Vertex --- a class for encapsulating vertex information.
- */
-class Vertex{
-    private int assigned = -1;          // a color assigned to the vertex, default -1
-    private Set<Integer> available;     // colors that are assignable to the vertex (i.e domain)
-    private Set<Integer> edges;         // adjacent vertices connected through edges
-
-    /**
-     * Constructor function for initializing variables
-     * @param K - the number of colors given in the CSP
-     */
-    Vertex(int K){
-        available = new HashSet<Integer>();
-        for(int i = 0; i < K; i++){
-            available.add(i);
-        }
-        edges = new HashSet<Integer>();
-    }
-
-    /**
-     * Getter and setter functions for class variables
-     */
-
-    public int getAssigned(){
-        return assigned;
-    }
-
-    public void setAssigned(int a){
-        assigned = a;
-    }
-
-    public Set<Integer> getAvailable(){
-        return available;
-    }
-
-    public void addAvailable(int a){
-        available.add(a);
-    }
-
-    public void removeAvailable(int a){
-        available.remove(a);
-    }
-
-    public Set<Integer> getEdges(){
-        return edges;
-    }
-
-    public void addEdges(int a){
-        edges.add(a);
-    }
-}
 /**
  * Csci6511_p2_natavan_akhundova --- a program to solve CSP.
  */
 public class Csci6511_p2_natavan_akhundova {
-    static Map<Integer, Vertex> vertices;                   // storage for all vertices in CSP
-    static Queue<int[]> arcs;                               // storage for all arcs/edges in CSP
-    static Map<Integer, ArrayList<Integer>> removedColors;  // storage for removed colors during AC3 Checking
-    static int K = -1;                                      // the number of colors given in the CSP
-
-    /**
-     * Checks if assignment of the color to the vertex is safe considering its neighbors
-     * @param color - the assigned color to the vertex
-     * @param adjacentVertices - a set of adjacent vertices of the vertex
-     * @return boolean value
-     */
-    public static boolean isSafe(Integer color, Set<Integer> adjacentVertices){
-        // if any of the adjacent vertices has the same color, it is not safe
-        for (Integer adjVertexId : adjacentVertices){
-            if (vertices.get(adjVertexId).getAssigned() == color) return false;
-        }
-        // otherwise, safe
-        return true;
-    }
-
     /**
-     * Restores CSP to the state where colors were not deleted from domains
-     * @param vertex - currently processing vertex object
-     * @param adjacentVertices - a set of adjacent vertices of currently processing vertex
-     * @param color - the assigned color to the vertex
+     * Prints the result of the search
+     * @param graph - the graph of the CSP
+     * @param status - the outcome of the search
+     * @param assigned - colors assigned to the vertices
      */
-    public static void restorePreviousState(Vertex vertex, Set<Integer> adjacentVertices, int color){
-        // remove assignment of the color to the vertex
-        vertex.setAssigned(-1);
-
-        // return the color to the adjacent vertices
-        for (Integer adjVertexId : adjacentVertices) {
-            vertices.get(adjVertexId).addAvailable(color);
-        }
-
-        // restore removed colors from AC-3 checking
-        if (removedColors != null && removedColors.size() > 0) {
-            Set<Integer> keys = removedColors.keySet();
-            for (int key : keys) {
-                ArrayList<Integer> values = removedColors.get(key);
-                for (int value: values) {
-                    vertices.get(key).addAvailable(value);
-                }
-            }
-        }
-    }
-
-    /**
-     * Sorts colors in the domain according to constraints
-     * @param availableColors - a set of colors in a domain of the vertex
-     * @param adjacentVertices - a set of adjacent vertices of the vertex
-     * @return an ArrayList
-     */
-    public static ArrayList<Integer> leastConstrainingColors(Set<Integer> availableColors,
-                                                             Set<Integer> adjacentVertices){
-        Map<Integer, Integer> colorCount = new HashMap<>();
-        ArrayList<Integer> sortedColors = new ArrayList<>();
-
-        // set occurrences of available colors to 0
-        for (Integer color : availableColors){
-            colorCount.put(color, 0);
-        }
-
-        // count and update occurrences (inversely) of colors of assigned adjacent vertices
-        for (Integer adjVertexId : adjacentVertices){
-            int adjacentColor = vertices.get(adjVertexId).getAssigned();
-            if (adjacentColor != -1) {
-                if (colorCount.containsKey(adjacentColor))
-                    colorCount.put(adjacentColor, colorCount.get(adjacentColor) - 1); // decrease the count
-            }
-        }
-
-        // sort by occurrence values in ascending order
-        List<Map.Entry<Integer, Integer>> list = new ArrayList<>(colorCount.entrySet());
-        list.sort(Map.Entry.comparingByValue());
-
-        for (Map.Entry<Integer, Integer> entry : list) {
-            sortedColors.add(entry.getKey());
-        }
-        return sortedColors;
-    }
-
-    /**
-     * Checks arc consistency between two vertices
-     * @param xId - id of the first vertex
-     * @param yId - id of the second vertex
-     * @return boolean
-     */
-    public static boolean AC(int xId, int yId){
-        boolean removed = false;
-        // for every value of x, there should exist allowable value of y in the arc
-        Set<Integer> xDomain = vertices.get(xId).getAvailable(); // get available colors of the vertex
-        Set<Integer> yDomain = vertices.get(yId).getAvailable(); // get available colors of the adjacent vertex
-
-        int yElem = yDomain.iterator().next();
-        if (yDomain.size() == 1 && xDomain.contains(yElem)) {
-            vertices.get(xId).removeAvailable(yElem);
-            if (!removedColors.containsKey(xId)) removedColors.put(xId, new ArrayList<>());
-            removedColors.get(xId).add(yElem);
-            removed = true;
-        }
-
-        return removed;
-    }
-
-    /**
-     * Checks arc consistency of all CSP
-     * @return boolean
-     */
-    public static boolean AC3() {
-        Queue<int[]> arcsCopy = new LinkedList<>(arcs); // store all arcs in the CSP into a queue
-        removedColors = new HashMap<>();
-
-        // for every arc check arc consistency
-        while (arcsCopy.size() != 0){
-            int[] xy = arcsCopy.remove();
-            int xId = xy[0];
-            int yId = xy[1];
-
-            if(AC(xId,yId))
-                if(vertices.get(xId).getAvailable().size() == 0) return false;
-        }
-
-        return true;
-    }
-
-    /**
-     * Colors the provided vertex and its adjacent vertices recursively checking FC and AC3
-     * @param vertexId - id of the vertex to be colored
-     * @return boolean
-     */
-    public static boolean colorGraphRecursive(Integer vertexId){
-        // if there is no left vertex to color
-        if (vertexId == -1)
-            return true;
-
-        Vertex vertex = vertices.get(vertexId); // get current vertex by Id
-        Set<Integer> adjacentVertices = vertex.getEdges(); // get adjacent vertices
-        ArrayList<Integer> colors = leastConstrainingColors(vertex.getAvailable(), adjacentVertices); // get least constraining colors to assign
-        boolean failure = false;    // flag for failures of FC and AC3 checks within CSP
-
-        // find a color in available colors for the vertex that is safe to assign
-        for (Integer color : colors){
-            if(isSafe(color, adjacentVertices)){
-                vertex.setAssigned(color); // assign the current color to the current vertex
-
-                int nextVertexId = -1;
-                int minRemainingValue = Integer.MAX_VALUE;
-
-                // ----------- Processing Adjacent Vertices -----------
-                for (Integer adjVertexId : adjacentVertices){
-                    Vertex adjVertex = vertices.get(adjVertexId); // get current adjacent vertex by Id
-                    adjVertex.removeAvailable(color);
-
-                    // Forward Checking: if any value has no values, terminate
-                    if (adjVertex.getAvailable().size() == 0) {failure = true; break;}
-
-                    // find the next vertex by the minimum remaining value
-                    if (adjVertex.getAssigned() == -1 && adjVertex.getAvailable().size() < minRemainingValue){
-                        minRemainingValue = adjVertex.getAvailable().size();
-                        nextVertexId = adjVertexId;
-                    }
-                }
-                // ----------- End Processing Adjacent Vertices -----------
-
-                // 3-Consistency Checking
-                if (!AC3()) failure = true;
-
-                if (!failure && colorGraphRecursive(nextVertexId)) return true; // recursively color other vertices
-
-                restorePreviousState(vertex, adjacentVertices, color); // restore the previous state if the color assignment lead to no solution
-            }
-        }
-
-        // no color has been assigned to the vertex
-        return false;
-    }
-
-    /**
-     * Calls recursive function of coloring the graph and prints the result
-     */
-    public static void colorGraph(){
-        boolean solution = false;
-        Set<Integer> keys = vertices.keySet(); // get ids of all vertices
-
-        // start coloring uncolored vertices
-        for (Integer key : keys) {
-            if(vertices.get(key).getAssigned() == -1) {
-                solution = colorGraphRecursive(key);
-                if (!solution) break; // if any vertex resulted in no assignment
-            }
-        }
-
-        // printing the result
-        if (!solution) System.out.println("Solution does not exist.");
+    public static void printColoring(Graph graph, ColoringSolver.Status status, int[] assigned){
+        if (status == ColoringSolver.Status.UNKNOWN) System.out.println("Solution is unknown.");
+        else if (status == ColoringSolver.Status.UNSATISFIABLE) System.out.println("Solution does not exist.");
         else{
             System.out.println("Solution exists:");
-            for (Integer key : keys) {
-                int color = vertices.get(key).getAssigned();
+            for (int v = 0; v < graph.size(); v++) {
+                int color = assigned[v];
                 // print id of vertices and their assigned colors colorful
-                System.out.printf("\u001B[3%dmThe color of %d is %d.\u001B[3%dm\n",color+1, key, color, color+1);
+                System.out.printf("\u001B[3%dmThe color of %d is %d.\u001B[3%dm\n",color+1, graph.getId(v), color, color+1);
             }
             System.out.println("\u001B[0m");
         }
@@ -266,7 +30,15 @@ public class Csci6511_p2_natavan_akhundova {
 
     /**
      * The Main Function; Handles reading an input file and starts the processing
-     * @param args - should consist of an input file
+     * @param args - should consist of an input file, optionally followed by --portfolio N, --parallel N,
+     *             --colors N (overriding the number of colors of the file), --compile (writing a snapshot)
+     *             or --chromatic with an optional --budget S (seconds per number of colors tried),
+     *             or --tabu with optional --budget S and --handoff N (conflicts left for the complete search),
+     *             and --threads N (threads per graph), --time-limit S and --node-limit N (budgets of the whole search),
+     *             --progress S (seconds between progress lines), --restarts luby|geometric,
+     *             --delta F (a file of changes the coloring is repaired after); or of a directory followed by
+     *             --batch N (graphs colored at once) and the options above; or of --serve followed by a port
+     *             or - for standard input
      */
     public static void main(String args[])
     {
@@ -276,48 +48,74 @@ public class Csci6511_p2_natavan_akhundova {
             System.exit(0);
         }
 
-        String fileName = args[0];                  // get the name of the input file
-        vertices = new HashMap<Integer, Vertex>(); // initialize storage for vertices
-        arcs = new LinkedList<>();                 // initialize storage for arcs
-
-        // ----------- Reading The File -----------
-        try (BufferedReader br = new BufferedReader(new FileReader(fileName))) {
-            System.out.println("Reading file inputs...");
-            String line;
-            int lineCount = 0;
-            while ((line = br.readLine()) != null) {
-                if(line.substring(0,1).equals("#"))
-                    continue;
-                if(K == -1) K = Integer.parseInt(line.split("=")[1].strip());
-                else{
-                    if(lineCount >= 5000) break; // limit the size of CSP
+        String fileName = args[0];                  // get the name of the input file, directory or service
+        boolean compile = false;                    // whether only a binary snapshot of the graph is written
+        String deltaFile = null;                    // the name of a file of changes repaired after the search, null if none
+        int batchThreads = 0;                       // the number of graphs of a directory colored at once, 0 for one file
+        boolean threadsGiven = false;               // whether the number of threads per graph is given
+        boolean serve = fileName.equals("--serve"); // whether requests are answered, see ColoringService
+        String port = serve && args.length > 1 ? args[1] : "-"; // the port requests come from, - for standard input
+        List<String> rest = new ArrayList<>();      // the options of the coloring
+        ColoringOptions options = null;
+        try {
+            for (int i = serve ? 2 : 1; i < args.length; i++){
+                if (args[i].equals("--compile")) compile = true;
+                else if (args[i].equals("--delta") && i + 1 < args.length) deltaFile = args[++i];
+                else if (args[i].equals("--batch") && i + 1 < args.length) batchThreads = Integer.parseInt(args[++i]);
+                else {
+                    threadsGiven |= args[i].equals("--threads");
+                    rest.add(args[i]);
+                }
+            }
+            options = ColoringOptions.parse(rest.toArray(new String[0]), 0);
+        }
+        catch (IllegalArgumentException ex){
+            System.out.println(ex.getMessage() + " ✗\nExiting");
+            System.exit(0);
+        }
 
-                    int fromVertice = Integer.parseInt(line.split(",")[0].strip());
-                    int toVertice = Integer.parseInt(line.split(",")[1].strip());
+        // ----------- Many Graphs In One Process -----------
+        try {
+            if (serve) {
+                ColoringService service = new ColoringService(Runtime.getRuntime().availableProcessors());
+                if (port.equals("-")) service.serve(new BufferedReader(new InputStreamReader(System.in)), new PrintWriter(System.out));
+                else service.listen(Integer.parseInt(port), System.out);
+                System.exit(0);
+            }
+            if (batchThreads > 0) {
+                // the graphs share the processors unless a number of threads per graph is given
+                if (!threadsGiven) options.setThreads(Runtime.getRuntime().availableProcessors() / batchThreads);
+                new ColoringService(batchThreads).batch(new File(fileName), options, System.out);
+                System.exit(0);
+            }
+        }
+        catch (Exception ex){
+            ex.printStackTrace();
+            System.out.println("Service Failed ✗\nExiting");
+            System.exit(1);
+        }
 
-                    // Add vertices to vertex collection
-                    if (!vertices.containsKey(fromVertice)) vertices.put(fromVertice, new Vertex(K));
-                    if (!vertices.containsKey(toVertice)) vertices.put(toVertice, new Vertex(K));
+        ColoringInstance instance = null;
+        int K = -1;                                 // the number of colors given in the CSP
 
-                    // Add undirected edges
-                    vertices.get(fromVertice).addEdges(toVertice);
-                    vertices.get(toVertice).addEdges(fromVertice);
-                    lineCount++;
-                }
-            }
+        // ----------- Reading The File -----------
+        try {
+            System.out.println("Reading file inputs...");
+            instance = ColoringInstance.load(fileName, Runtime.getRuntime().availableProcessors(), !compile);
+            if (instance.getSnapshotName() != null) System.out.printf("Loaded snapshot %s ✓\n", instance.getSnapshotName());
+            if (instance.getSnapshotError() != null)
+                System.out.printf("Snapshot %s is unusable (%s), reading the text file\n", GraphSnapshot.pathFor(fileName), instance.getSnapshotError());
+            K = options.getColors() != -1 ? options.getColors() : instance.getK();
             System.out.println("Done reading file inputs ✓");
 
-            // Store all edges of the graph
-            Set<Integer> keys = vertices.keySet();
-            for (int key : keys){
-                Set<Integer> edges = vertices.get(key).getEdges();
-                for (int edge : edges){
-                    arcs.add(new int[]{key, edge});
-                }
+            if (compile) {
+                new GraphSnapshot(instance.getGraph(), K).write(GraphSnapshot.pathFor(fileName));
+                System.out.printf("Snapshot written to %s ✓\n", GraphSnapshot.pathFor(fileName));
+                System.exit(0);
             }
 
             System.out.printf("The number of \n\t1)vertices: %d\n\t2)arcs: %d\n\t3)colors: %d\n",
-                    vertices.size(),arcs.size(),K);
+                    instance.getGraph().size(),instance.getGraph().arcCount(),K);
         }
         catch (Exception ex){
             ex.printStackTrace();
@@ -327,6 +125,33 @@ public class Csci6511_p2_natavan_akhundova {
         // ----------- End Reading The File -----------
 
         // ----------- Coloring The Graph -----------
-        colorGraph();
+        try {
+            ColoringResult result = new GraphColoring(instance.getGraph(), K, options).solve();
+            for (String line : result.getDetails()) System.out.println(line);
+            printColoring(instance.getGraph(), result.getStatus(), result.getAssigned());
+
+            // repair the coloring after a change of the graph instead of searching again
+            if (deltaFile != null && result.getStatus() == ColoringSolver.Status.SATISFIABLE) {
+                GraphDelta delta = GraphDelta.read(deltaFile);
+                DynamicColoring dynamic = new DynamicColoring(instance.getGraph(), result.getK(), result.getAssigned());
+                long start = System.nanoTime();
+                ColoringSolver.Status status = dynamic.apply(delta);
+                double millis = (System.nanoTime() - start) / 1e6;
+                if (dynamic.getLastRadius() == -1) System.out.printf("Applied %d changes, searched the whole graph in %.3f ms\n", delta.size(), millis);
+                else System.out.printf("Applied %d changes, recolored %d vertices within radius %d in %.3f ms\n",
+                        delta.size(), dynamic.getLastRecolored(), dynamic.getLastRadius(), millis);
+                Graph changed = dynamic.toGraph();
+                printColoring(changed, status, dynamic.colorsOf(changed));
+            }
+        }
+        catch (IllegalArgumentException ex){
+            System.out.println(ex.getMessage() + " ✗\nExiting");
+            System.exit(0);
+        }
+        catch (Exception ex){
+            ex.printStackTrace();
+            System.out.println("Search Failed ✗\nExiting");
+            System.exit(1);
+        }
     }
 }
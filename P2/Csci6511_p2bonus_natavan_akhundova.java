@@ -2,15 +2,20 @@ import javax.rmi.ssl.SslRMIClientSocketFactory;
 import java.io.BufferedReader;
 import java.io.FileReader;
 import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
  * Block --- a class for encapsulating 4x4 block information.
+ * The bushes of the block are only kept as the number of bushes of every color each tile leaves visible.
  */
 class Block{
-    private int assigned = -1;              // a tile assigned to the block, default -1
     private int posX = -1;                  // a starting position of the block on the x line in the board, default -1
     private int posY = -1;                  // a starting position of the block on the y line in the board, default -1
-    private ArrayList<Integer> bushes;      // a list of marked bushes in the block
+    private final int[][] visible;          // visible[tile-1][color-1] - the number of bushes of the color the tile leaves visible
 
     /**
      * Constructor function for initializing variables
@@ -18,7 +23,7 @@ class Block{
      * @param posY - a starting position of the block on the y line in the board
      */
     Block(int posX, int posY){
-        bushes = new ArrayList<>();
+        visible = new int[3][4];
         this.posX = posX;
         this.posY = posY;
     }
@@ -27,14 +32,6 @@ class Block{
      * Getter and setter functions for class variables
      */
 
-    public int getAssigned(){
-        return assigned;
-    }
-
-    public void setAssigned(int a){
-        assigned = a;
-    }
-
     public int getPosX(){
         return posX;
     }
@@ -43,263 +40,761 @@ class Block{
         return posY;
     }
 
-    public ArrayList<Integer> getBushes(){
-        return bushes;
+    public int[] getVisible(int tile){
+        return visible[tile - 1];
+    }
+
+    /**
+     * Counts a marked bush of the block for every tile leaving it visible
+     * @param cellX - the column of the bush in the block, 1..3 (the first column is always covered)
+     * @param cellY - the row of the bush in the block, 1..3 (the first row is always covered)
+     * @param color - the color of the bush, 0 if there is no bush
+     */
+    public void addBush(int cellX, int cellY, int color){
+        if (color == 0) return;
+        // the EL Shape covers only the first row and column, the Outer Boundary leaves the inner 2x2 cells
+        visible[Csci6511_p2bonus_natavan_akhundova.EL_SHAPE - 1][color - 1]++;
+        if (cellX <= 2 && cellY <= 2) visible[Csci6511_p2bonus_natavan_akhundova.OUTER_BOUNDARY - 1][color - 1]++;
+    }
+}
+/**
+ * TranspositionTable --- a bounded set of search states known to have no solution. A state is packed into
+ * two longs; the table is open addressed in buckets of BUCKET slots, and a full bucket gives up the state
+ * with the fewest blocks left, whose subtree is the cheapest to search again.
+ */
+class TranspositionTable{
+    final static int BUCKET = 4;            // the number of slots a state may be stored in
+    final static int SLOT_BYTES = 20;       // the memory of one slot: two longs of the key and an int
+
+    private final long[] keys;              // keys[2*slot], keys[2*slot+1] - the packed state of every slot
+    private final int[] remaining;          // the number of blocks left after the state of every slot, 0 if empty
+    private final int mask;                 // the number of buckets minus one
+    private int size = 0;                   // the number of stored states
+    private long hits = 0;                  // the number of lookups finding their state
+    private long evictions = 0;             // the number of states given up for new ones
+
+    /**
+     * Constructor function for initializing variables
+     * @param megabytes - the memory the table may take
+     */
+    TranspositionTable(int megabytes){
+        long slots = Math.max(BUCKET, (long) megabytes * 1024 * 1024 / SLOT_BYTES);
+        int buckets = Integer.highestOneBit((int) Math.min(slots / BUCKET, 1 << 26));
+        keys = new long[2 * BUCKET * buckets];
+        remaining = new int[BUCKET * buckets];
+        mask = buckets - 1;
+    }
+
+    /**
+     * Finds the first slot of the bucket of the state
+     * @param high - the upper word of the packed state
+     * @param low - the lower word of the packed state
+     * @return int
+     */
+    private int bucketOf(long high, long low){
+        long hash = high * 0x9E3779B97F4A7C15L ^ low;
+        hash = (hash ^ (hash >>> 30)) * 0xBF58476D1CE4E5B9L;
+        hash = (hash ^ (hash >>> 27)) * 0x94D049BB133111EBL;
+        return (int) ((hash ^ (hash >>> 31)) & mask) * BUCKET;
+    }
+
+    /**
+     * Checks if the state is stored
+     * @param high - the upper word of the packed state
+     * @param low - the lower word of the packed state
+     * @return boolean
+     */
+    public boolean contains(long high, long low){
+        for (int slot = bucketOf(high, low), end = slot + BUCKET; slot < end; slot++){
+            if (remaining[slot] != 0 && keys[2 * slot] == high && keys[2 * slot + 1] == low) {
+                hits++;
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Stores the state, giving up the state with the fewest blocks left if its bucket is full
+     * @param high - the upper word of the packed state
+     * @param low - the lower word of the packed state
+     * @param blocksLeft - the number of blocks left after the state, at least 1
+     */
+    public void add(long high, long low, int blocksLeft){
+        int victim = -1;
+        for (int slot = bucketOf(high, low), end = slot + BUCKET; slot < end; slot++){
+            if (remaining[slot] == 0) {
+                victim = slot;
+                size++;
+                break;
+            }
+            if (victim == -1 || remaining[slot] < remaining[victim]) victim = slot;
+        }
+        if (remaining[victim] != 0) {
+            if (remaining[victim] > blocksLeft) return; // every stored state saves more work
+            evictions++;
+        }
+        keys[2 * victim] = high;
+        keys[2 * victim + 1] = low;
+        remaining[victim] = blocksLeft;
+    }
+
+    /**
+     * Getter functions for class variables
+     */
+
+    public int getSize(){
+        return size;
     }
 
-    public void addBush(int color){ bushes.add(color); }
+    public long getHits(){
+        return hits;
+    }
 
+    public long getEvictions(){
+        return evictions;
+    }
 }
 /**
- * Csci6511_p2bonus_natavan_akhundova --- a program to solve CSP.
+ * TileSearch --- the backtracking search covering the blocks of a board in order. The blocks are shared
+ * read-only, while the targets, the tile stock, the bounds and the assignment belong to the search, so a copy
+ * of a search can go on from its state in another thread. The blocks before a prefix are already covered.
  */
+class TileSearch{
+    final static int EL_SHAPE = Csci6511_p2bonus_natavan_akhundova.EL_SHAPE;
+    final static int OUTER_BOUNDARY = Csci6511_p2bonus_natavan_akhundova.OUTER_BOUNDARY;
+    final static int FULL_BLOCK = Csci6511_p2bonus_natavan_akhundova.FULL_BLOCK;
+
+    private final Block[] blocks;           // all blocks in the order of covering, shared by all searches
+    private final int[] targets;            // targets[color-1] - the number of visible bushes still needed
+    private final int[] tiles;              // tiles[tile-1] - the number of available tiles
+    private final int[] assigned;           // assigned[i] - the tile covering blocks[i], -1 if none
+    private final int bins;                 // the largest number of bushes a block shows, plus one
+    private final int[] elCounts;           // elCounts[c*bins+k] - unassigned blocks showing k bushes of color c+1 under an EL Shape, c = 4 for all colors
+    private final int[] outerCounts;        // outerCounts[c*bins+k] - the same under an Outer Boundary
+    private final int[] extraCounts;        // extraCounts[c*bins+k] - the same for the bushes an EL Shape shows more than an Outer Boundary
+    private final int[] tileSlack = new int[4]; // tileSlack[tile] - the room a tile of the block being ordered leaves
+    private int prefix = 0;                 // the number of blocks covered before the search
+    private TranspositionTable failed;      // search states known to have no solution, null if not memoized
+    private int[] stateWidths;              // the bits of the depth, EL Shapes, Outer Boundaries and targets in a packed state
+    private long stateHigh, stateLow;       // the state packed by the last packState()
+    private AtomicBoolean stop;             // set when the search should give up, null if never
+    private boolean enumerate = false;      // whether every tiling is counted instead of stopping at the first one
+    private IntArrayConsumer listener;      // called with every tiling counted, null if none
+    private long solutions = 0;             // the number of tilings counted
 
-public class Csci6511_p2bonus_natavan_akhundova {
-    static Map<String, Block> blocks;                       // storage for all blocks in the board
-    static Queue<String> blockIds;                          // storage for all block IDs in the board (queue)
-    static Queue<int[]> arcs;                               // storage for all arcs/edges in CSP
-    static Map<Integer, ArrayList<Integer>> removedColors;  // storage for removed colors during AC3 Checking
-    static Map<Integer, Integer> targets;                   // storage for targets for bushes in a specific color
-    static Map<Integer, Integer> tiles;                     // storage for available tiles in the CSP
-    final static int EL_SHAPE = 1;                          // the index of the L shaped tiles
-    final static int OUTER_BOUNDARY = 2;                    // the index of the outer boundary shaped tiles
-    final static int FULL_BLOCK = 3;                        // the index of the full block shaped tiles
+    /**
+     * IntArrayConsumer --- receives the assignment of a tiling, which is only valid during the call
+     */
+    interface IntArrayConsumer{
+        void accept(int[] assigned);
+    }
 
     /**
-     * Checks if assignment of the tile to the block is safe considering targets of CSP
+     * Constructor function for initializing variables
+     * @param blocks - all blocks in the order of covering
+     * @param targets - targets[color-1] - the number of visible bushes needed
+     * @param tiles - tiles[tile-1] - the number of available tiles
+     */
+    TileSearch(Block[] blocks, int[] targets, int[] tiles){
+        this.blocks = blocks;
+        this.targets = targets.clone();
+        this.tiles = tiles.clone();
+        assigned = new int[blocks.length];
+        Arrays.fill(assigned, -1);
+
+        // ----------- Bounds Of The Unassigned Blocks -----------
+        int bins = 1;
+        for (Block block : blocks){
+            int[] visible = block.getVisible(EL_SHAPE);
+            bins = Math.max(bins, visible[0] + visible[1] + visible[2] + visible[3] + 1);
+        }
+        this.bins = bins;
+        elCounts = new int[5 * bins];
+        outerCounts = new int[5 * bins];
+        extraCounts = new int[5 * bins];
+        for (Block block : blocks) countRemaining(block, 1);
+    }
+
+    /**
+     * Constructor function copying the state of another search, which takes no part in the copy afterwards
+     * @param other - the search to copy
+     */
+    TileSearch(TileSearch other){
+        blocks = other.blocks;
+        targets = other.targets.clone();
+        tiles = other.tiles.clone();
+        assigned = other.assigned.clone();
+        bins = other.bins;
+        elCounts = other.elCounts.clone();
+        outerCounts = other.outerCounts.clone();
+        extraCounts = other.extraCounts.clone();
+        prefix = other.prefix;
+        stateWidths = other.stateWidths;
+        stop = other.stop;
+        enumerate = other.enumerate;
+        listener = other.listener;
+    }
+
+    /**
+     * Checks if assignment of the tile to the block is safe considering targets of CSP, and covers it if so
      * @param tile - the assigned tile to the block
-     * @param bushes - 4x4 colored values of the block
+     * @param block - the block to cover
      * @return boolean value
      */
-    public static boolean isSafe(Integer tile, ArrayList<Integer> bushes){
+    public boolean isSafe(int tile, Block block){
         // if any of the tiles are placed more than needed, it is not safe
-        if (tiles.get(tile)-1 < 0) return false;
+        if (tiles[tile - 1] == 0) return false;
 
         // if any of the targets are visible more than needed, it is not safe
-        if (tile == EL_SHAPE){
-            if (!coverWithELShape(bushes)) return false;
+        return cover(block, tile);
+    }
+
+    /**
+     * Covers the block with the tile and changes targets accordingly, if safe
+     * @param block - the block to cover
+     * @param tile - the tile to cover it with
+     * @return boolean value
+     */
+    public boolean cover(Block block, int tile){
+        int[] visible = block.getVisible(tile);
+        targets[0] -= visible[0];
+        targets[1] -= visible[1];
+        targets[2] -= visible[2];
+        targets[3] -= visible[3];
+
+        // if any target is visible more than needed, return everything back and declare non-safety
+        if ((targets[0] | targets[1] | targets[2] | targets[3]) < 0) {
+            targets[0] += visible[0];
+            targets[1] += visible[1];
+            targets[2] += visible[2];
+            targets[3] += visible[3];
+            return false;
         }
-        else if (tile == OUTER_BOUNDARY){
-            if (!coverWithOuterBoundary(bushes)) return false;
+        tiles[tile - 1]--; // decrease available tiles
+        return true;
+    }
+
+    /**
+     * Uncovers the block with the tile and changes targets accordingly
+     * @param block - the block to uncover
+     * @param tile - the tile it is covered with
+     */
+    public void uncover(Block block, int tile){
+        int[] visible = block.getVisible(tile);
+        targets[0] += visible[0];
+        targets[1] += visible[1];
+        targets[2] += visible[2];
+        targets[3] += visible[3];
+        tiles[tile - 1]++; // increase available tiles
+    }
+
+    /**
+     * Restores CSP to the state where colors were not deleted from domains
+     * @param depth - the index of the currently processing block
+     */
+    public void restorePreviousState(int depth){
+        // remove assignment of the tile to the block
+        int tile = assigned[depth];
+        assigned[depth] = -1;
+
+        // return the targets to their previous values
+        uncover(blocks[depth], tile);
+    }
+
+    /**
+     * Checks if every target is reached
+     * @return boolean
+     */
+    public boolean targetsReached(){
+        return (targets[0] | targets[1] | targets[2] | targets[3]) == 0;
+    }
+
+    /**
+     * Adds the block to or removes it from the counts of unassigned blocks
+     * @param block - the block
+     * @param change - 1 to add the block, -1 to remove it
+     */
+    public void countRemaining(Block block, int change){
+        int[] el = block.getVisible(EL_SHAPE), outer = block.getVisible(OUTER_BOUNDARY);
+        int elTotal = 0, outerTotal = 0;
+        for (int c = 0; c < 4; c++){
+            elCounts[c * bins + el[c]] += change;
+            outerCounts[c * bins + outer[c]] += change;
+            extraCounts[c * bins + el[c] - outer[c]] += change;
+            elTotal += el[c];
+            outerTotal += outer[c];
         }
-        else{
-            if (!coverWithFullBlock(bushes)) return false;
+        elCounts[4 * bins + elTotal] += change;
+        outerCounts[4 * bins + outerTotal] += change;
+        extraCounts[4 * bins + elTotal - outerTotal] += change;
+    }
+
+    /**
+     * Sums the largest or the smallest values of a color counted in the histogram
+     * @param counts - the histogram of the values of all colors
+     * @param color - index of the color, 0..3, or 4 for all colors
+     * @param k - the number of values to sum
+     * @param largest - whether the largest values are summed
+     * @return int
+     */
+    public int sumOf(int[] counts, int color, int k, boolean largest){
+        int sum = 0;
+        for (int i = 0; i < bins && k > 0; i++){
+            int value = largest ? bins - 1 - i : i;
+            int taken = Math.min(k, counts[color * bins + value]);
+            sum += taken * value;
+            k -= taken;
         }
+        return sum;
+    }
 
-        // otherwise, safe
-        return true;
+    /**
+     * Measures how far the targets are from what the unassigned blocks can still show with the remaining tiles.
+     * Every block needs a tile. For each color, and for all colors together, at most the blocks with the most
+     * bushes get an EL Shape and the next ones an Outer Boundary; at least the blocks not getting a Full Block
+     * show their Outer Boundary bushes, and those not getting an Outer Boundary either show the bushes an EL
+     * Shape adds. The target has to lie between the two.
+     * @param remaining - the number of unassigned blocks
+     * @return the smallest distance of a target to its bounds, -1 if a target is out of them
+     */
+    public int slack(int remaining){
+        int el = tiles[EL_SHAPE - 1], outer = tiles[OUTER_BOUNDARY - 1], full = tiles[FULL_BLOCK - 1];
+        if (el + outer + full < remaining) return -1;
+        int slack = Integer.MAX_VALUE;
+
+        int elMost = Math.min(el, remaining);
+        int outerMost = Math.min(outer, remaining - elMost);
+        int uncovered = Math.max(0, remaining - full);
+        int elLeast = Math.max(0, uncovered - outer);
+        for (int c = 0; c <= 4; c++){
+            int target = c < 4 ? targets[c] : targets[0] + targets[1] + targets[2] + targets[3];
+            int most = sumOf(elCounts, c, elMost, true) + sumOf(outerCounts, c, outerMost, true);
+            if (target > most) return -1;
+            int least = sumOf(outerCounts, c, uncovered, false) + sumOf(extraCounts, c, elLeast, false);
+            if (target < least) return -1;
+            slack = Math.min(slack, Math.min(target - least, most - target));
+        }
+        return slack;
     }
 
     /**
-     * Covers the block with the EL Shape and changes targets accordingly, if safe
-     * @param bushes - bushes of the block
-     * @return
+     * Packs the depth, the remaining EL Shapes and Outer Boundaries and the remaining targets into stateHigh
+     * and stateLow. The remaining Full Blocks follow from the others, since every block above has a tile.
+     * @param depth - the number of covered blocks
      */
-    public static boolean coverWithELShape(ArrayList<Integer> bushes){
-            boolean isSafe = true;                     // boolean for checking safety
-            int i = 0;
+    public void packState(int depth){
+        stateHigh = 0;
+        stateLow = 0;
+        int position = pack(depth, stateWidths[0], 0);
+        position = pack(tiles[EL_SHAPE - 1], stateWidths[1], position);
+        position = pack(tiles[OUTER_BOUNDARY - 1], stateWidths[2], position);
+        for (int c = 0; c < 4; c++) position = pack(targets[c], stateWidths[3 + c], position);
+    }
 
-            // Check if any target is visible more than needed
-            for (;i < bushes.size(); i++){
-                if (bushes.get(i) == 0) continue;
-                targets.put(bushes.get(i), targets.get(bushes.get(i))-1);
-                if (targets.get(bushes.get(i)) < 0){
-                    isSafe = false;
-                    break;
-                }
-            }
+    private int pack(long value, int width, int position){
+        if (position >= 64) stateHigh |= value << (position - 64);
+        else {
+            stateLow |= value << position;
+            if (position + width > 64) stateHigh |= value >>> (64 - position);
+        }
+        return position + width;
+    }
 
-            // if so, return everything back and declare non-safety
-            if (!isSafe) {
-                for (; i >= 0; i--) {
-                    if (bushes.get(i) == 0) continue;
-                    targets.put(bushes.get(i), targets.get(bushes.get(i))+1);
-                }
-            }
-            else tiles.put(1, tiles.get(1)-1); // decrease available EL Shapes
+    /**
+     * Sizes the fields of a packed state by the values of this search, which are the largest the state takes
+     * @return false if the states are too large to be packed in two longs
+     */
+    public boolean packable(){
+        int[] largest = {blocks.length, tiles[EL_SHAPE - 1], tiles[OUTER_BOUNDARY - 1], targets[0], targets[1], targets[2], targets[3]};
+        stateWidths = new int[largest.length];
+        int bits = 0;
+        for (int i = 0; i < largest.length; i++){
+            stateWidths[i] = 64 - Long.numberOfLeadingZeros(Math.max(0, largest[i]));
+            bits += stateWidths[i];
+        }
+        return bits <= 128;
+    }
 
-            // return a boolean whether it is safe to use the tile
-            return isSafe;
+    /**
+     * Orders the tiles of the block by how much room they leave to reach the targets, most room first,
+     * dropping the tiles that are not available or leave a target out of reach
+     * @param block - the block to cover
+     * @param remaining - the number of unassigned blocks after it
+     * @param order - storage for the ordered tiles
+     * @param from - the position in the storage the tiles are written from
+     * @return the number of tiles written
+     */
+    public int orderTiles(Block block, int remaining, int[] order, int from){
+        int count = 0;
+        for (int tile = EL_SHAPE; tile <= FULL_BLOCK; tile++){
+            if (!isSafe(tile, block)) continue;
+            int slack = slack(remaining);
+            uncover(block, tile);
+            if (slack < 0) continue;
+
+            // insertion by slack, ties keep the order EL Shape, Outer Boundary, Full Block
+            tileSlack[tile] = slack;
+            int i = from + count++;
+            for (; i > from && tileSlack[order[i - 1]] < slack; i--) order[i] = order[i - 1];
+            order[i] = tile;
+        }
+        return count;
     }
 
     /**
-     * Uncovers the block with the EL Shape and changes targets accordingly
-     * @param bushes - bushes of the block
-     * @return
+     * Enters the first block after the prefix and orders its tiles, as the search would
+     * @param order - storage for the ordered tiles, three entries
+     * @return the number of tiles written, 0 if the prefix is the whole board
      */
-    public static void uncoverWithELShape(ArrayList<Integer> bushes){
+    public int enterNext(int[] order){
+        if (prefix == blocks.length) return 0;
+        countRemaining(blocks[prefix], -1);
+        return orderTiles(blocks[prefix], blocks.length - prefix - 1, order, 0);
+    }
 
-        // return everything back
-        for (int i = 0; i < bushes.size(); i++) {
-            if (bushes.get(i) == 0) continue;
-            targets.put(bushes.get(i), targets.get(bushes.get(i))+1);
-        }
-        tiles.put(1, tiles.get(1)+1); // increase available EL Shapes
+    /**
+     * Covers the block entered by enterNext() with one of its ordered tiles and adds it to the prefix
+     * @param tile - the tile to cover the block with
+     */
+    public void coverNext(int tile){
+        cover(blocks[prefix], tile);
+        assigned[prefix++] = tile;
     }
 
     /**
-     * Covers the block with the Outer Boundary and changes targets accordingly, if safe
-     * @param bushes - bushes of the block
-     * @return
+     * Covers the blocks after the prefix in order with backtracking. The tile to try next at every depth is kept
+     * in an array instead of the call stack, so boards of tens of thousands of blocks do not overflow it.
+     * A tile is only tried if the targets can still be reached with the blocks after it. With a table of
+     * failed states, the blocks left after a state that has failed before are not searched again; the
+     * blocks only share the tile stock and the targets, so the state decides the outcome. When enumerating,
+     * every tiling is counted and given to the listener, and the search goes on until the tree is exhausted.
+     * @return true if a tiling is found and the search is not enumerating; the tiling is then in getAssigned()
      */
-    public static boolean coverWithOuterBoundary(ArrayList<Integer> bushes){
-        boolean isSafe = true;                   // boolean for checking safety
-        int[] indexes = {0,1,3,4};       // indices that should be considered with this tile
-        int i = 0;
+    public boolean coverBlocks(){
+        int[] tileOrder = new int[3 * blocks.length]; // the tiles to try at every depth, three entries per depth
+        int[] tileCount = new int[blocks.length];     // the number of tiles to try at every depth
+        int[] nextTile = new int[blocks.length + 1];  // the position of the next tile to try at every depth
+        long[] solutionsAt = new long[blocks.length]; // the number of tilings counted when every depth was entered
+        int depth = prefix, steps = 0;
+        if (slack(blocks.length - prefix) < 0) return false;
+
+        while (depth >= prefix){
+            // give up once told to, checking the flag only now and then
+            if (stop != null && (++steps & 1023) == 0 && stop.get()) return false;
+
+            // all blocks are covered, the targets have to be reached exactly
+            if (depth == blocks.length) {
+                if (targetsReached()) {
+                    if (!enumerate) return true;
+                    solutions++;
+                    if (listener != null) listener.accept(assigned);
+                }
+                depth--;
+                continue;
+            }
 
-        // Check if any target is visible more than needed
-        for (;i < indexes.length; i++){
-            int index = indexes[i];
-            if (bushes.get(index) == 0) continue;
-            targets.put(bushes.get(index), targets.get(bushes.get(index))-1);
-            if (targets.get(bushes.get(index)) < 0){
-                isSafe = false;
-                break;
+            // restore the previous state if the last tile of the block lead to no solution
+            Block block = blocks[depth];
+            if (assigned[depth] != -1) restorePreviousState(depth);
+            else if (nextTile[depth] == 0) {
+                // entered the block: only the tiles keeping the targets reachable are tried, the loosest first
+                countRemaining(block, -1);
+                solutionsAt[depth] = solutions;
+                if (failed != null) packState(depth);
+                if (failed != null && failed.contains(stateHigh, stateLow)) tileCount[depth] = 0;
+                else tileCount[depth] = orderTiles(block, blocks.length - depth - 1, tileOrder, 3 * depth);
             }
-        }
 
-        // if so, return everything back and declare non-safety
-        if (!isSafe) {
-            for (; i >= 0; i--) {
-                int index = indexes[i];
-                if (bushes.get(index) == 0) continue;
-                targets.put(bushes.get(index), targets.get(bushes.get(index))+1);
+            // the next tile of the block in the order, if any is left
+            if (nextTile[depth] == tileCount[depth]) {
+                // no tile has been assigned to the block, the state it was entered in has failed unless tilings were counted below it
+                countRemaining(block, 1);
+                if (failed != null && tileCount[depth] != 0 && solutions == solutionsAt[depth]) {
+                    packState(depth);
+                    failed.add(stateHigh, stateLow, blocks.length - depth);
+                }
+                depth--;
+                continue;
             }
+            int tile = tileOrder[3 * depth + nextTile[depth]++];
+            cover(block, tile);
+            assigned[depth] = tile; // assign the current tile to the current block
+            nextTile[++depth] = 0;
         }
-        else tiles.put(2, tiles.get(2)-1); // decrease available Outer Boundary
+        return false;
+    }
+
+    /**
+     * Getter and setter functions for class variables
+     */
 
-        // return a boolean whether it is safe to use the tile
-        return isSafe;
+    public int[] getAssigned(){
+        return assigned;
+    }
+
+    public int getPrefix(){
+        return prefix;
+    }
+
+    public long getSolutions(){
+        return solutions;
+    }
+
+    public TranspositionTable getFailed(){
+        return failed;
+    }
+
+    public void setFailed(TranspositionTable failed){
+        this.failed = failed;
+    }
+
+    public void setStop(AtomicBoolean stop){
+        this.stop = stop;
+    }
+
+    public void setEnumerate(boolean enumerate, IntArrayConsumer listener){
+        this.enumerate = enumerate;
+        this.listener = listener;
+    }
+}
+/**
+ * ParallelTileSearch --- splits the first block decisions of a TileSearch into subproblems, each with its own
+ * copy of the search, and searches them on a work-stealing fork-join pool. Once a subproblem finds a tiling the
+ * others give up; when enumerating, every subproblem is searched to the end and the tilings are added up.
+ * The table of failed states is kept per worker thread, since a failed state fails whichever path leads to it.
+ */
+class ParallelTileSearch{
+    private final TileSearch root;                          // the search of the whole board, only copied
+    private final int parallelism;                          // the number of worker threads
+    private final int splitDepth;                           // the number of first blocks split into subproblems
+    private final AtomicBoolean stop;                       // set once a tiling has been found or a subproblem failed
+    private final AtomicReference<int[]> solution;          // the found tiling, null if none
+    private final LongAdder solutions;                      // the number of tilings counted by finished subproblems
+    private final List<TranspositionTable> tables;          // the tables of failed states of all worker threads
+    private final ThreadLocal<TranspositionTable> failed;   // the table of failed states of every worker thread, null if not memoized
+
+    /**
+     * Constructor function for initializing variables
+     * @param root - the search of the whole board, set up to enumerate or not
+     * @param parallelism - the number of worker threads
+     * @param splitDepth - the number of first blocks split into subproblems, at most all of them
+     * @param megabytes - the memory all tables of failed states may take, 0 for none
+     */
+    ParallelTileSearch(TileSearch root, int parallelism, int splitDepth, int megabytes){
+        this.root = root;
+        this.parallelism = Math.max(1, parallelism);
+        this.splitDepth = Math.min(splitDepth, root.getAssigned().length); // a prefix of every block is a tiling to check
+        this.stop = new AtomicBoolean(false);
+        this.solution = new AtomicReference<>();
+        this.solutions = new LongAdder();
+        this.tables = Collections.synchronizedList(new ArrayList<>());
+        int share = Math.max(1, megabytes / this.parallelism);
+        this.failed = megabytes <= 0 ? null : ThreadLocal.withInitial(() -> {
+            TranspositionTable table = new TranspositionTable(share);
+            tables.add(table);
+            return table;
+        });
+        root.setStop(stop);
     }
 
     /**
-     * Uncovers the block with the Outer Boundary and changes targets accordingly
-     * @param bushes - bushes of the block
-     * @return
+     * SubproblemTask --- searches the tilings below a prefix of covered blocks
      */
-    public static void uncoverWithOuterBoundary(ArrayList<Integer> bushes){
-        int[] indexes = {0,1,3,4}; // indices that should be considered with this tile
+    private class SubproblemTask extends RecursiveAction{
+        private static final long serialVersionUID = 1L;
+        private final TileSearch search;    // the search with the prefix covered, owned by this task
+
+        SubproblemTask(TileSearch search){
+            this.search = search;
+        }
+
+        @Override
+        protected void compute(){
+            if (stop.get()) return;
+            try {
+                // split the next block into one subproblem per tile that keeps the targets reachable
+                if (search.getPrefix() < splitDepth) {
+                    int[] order = new int[3];
+                    int count = search.enterNext(order);
+                    List<SubproblemTask> children = new ArrayList<>(count);
+                    for (int i = 0; i < count; i++){
+                        TileSearch child = new TileSearch(search);
+                        child.coverNext(order[i]);
+                        children.add(new SubproblemTask(child));
+                    }
+                    invokeAll(children);
+                    return;
+                }
 
-        // return everything back
-        for (int i = 0; i < indexes.length; i++) {
-            int index = indexes[i];
-            if (bushes.get(index) == 0) continue;
-            targets.put(bushes.get(index), targets.get(bushes.get(index))+1);
+                if (failed != null) search.setFailed(failed.get());
+                if (search.coverBlocks() && solution.compareAndSet(null, search.getAssigned().clone())) stop.set(true);
+                solutions.add(search.getSolutions());
+            }
+            catch (RuntimeException ex){
+                stop.set(true);
+                throw ex;
+            }
         }
-        tiles.put(2, tiles.get(2)+1); // increase available Outer Boundary
     }
 
     /**
-     * Covers the block with the Full Block and changes targets accordingly, if safe
-     * @param bushes - bushes of the block
-     * @return
+     * Searches all subproblems until a tiling is found, or until every subproblem is exhausted when enumerating
+     * @return true if a tiling is found and the search is not enumerating; the tiling is then in getSolution()
      */
-    public static boolean coverWithFullBlock(ArrayList<Integer> bushes){
-        boolean isSafe = true;           // boolean for checking safety
-        tiles.put(3, tiles.get(3)-1);   // decrease available Full Blocks
-
-        // return a boolean whether it is safe to use the tile
-        return isSafe;
+    public boolean solve(){
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            pool.invoke(new SubproblemTask(new TileSearch(root)));
+        }
+        finally {
+            pool.shutdownNow();
+        }
+        return solution.get() != null;
     }
 
     /**
-     * Uncovers the block with the Full Block and changes targets accordingly, if safe
-     * @param bushes - bushes of the block
-     * @return
+     * The number of first blocks split into subproblems when none is given: enough for a few subproblems
+     * per worker thread, as every block splits into at most three
+     * @param parallelism - the number of worker threads
+     * @param blockCount - the number of blocks on the board
+     * @return int
      */
-    public static void uncoverWithFullBlock(ArrayList<Integer> bushes){
-        tiles.put(3, tiles.get(3)+1); // increase available Full Blocks
+    public static int defaultSplitDepth(int parallelism, int blockCount){
+        int depth = 0;
+        for (long subproblems = 1; subproblems < 8L * parallelism && depth < blockCount; subproblems *= 3) depth++;
+        return depth;
     }
 
     /**
-     * Restores CSP to the state where colors were not deleted from domains
-     * @param block - currently processing block object
-     * @param tile - the assigned tile to the block
+     * Getter functions for class variables
      */
-    public static void restorePreviousState(Block block, int tile){
-        // remove assignment of the tile to the block
-        block.setAssigned(-1);
 
-        // return the targets to their previous values
-        ArrayList<Integer> bushes = block.getBushes();
-        if (tile == EL_SHAPE) uncoverWithELShape(bushes);
-        else if (tile == OUTER_BOUNDARY) uncoverWithOuterBoundary(bushes);
-        else uncoverWithFullBlock(bushes);
+    public int[] getSolution(){
+        return solution.get();
     }
 
-        /**
-         * Colors the provided vertex and its adjacent vertices recursively checking FC and AC3
-         * @return boolean
-         */
-        public static boolean coverBoardRecursive(String blockId){
-            // if there is no left block to cover
-            if (blockId.equals("-1"))
-                return true;
+    public long getSolutions(){
+        return solutions.sum();
+    }
 
-            Block block = blocks.get(blockId); // get current block by Id
-
-            // find a tile in available tiles for the block that is safe to assign
-            for (int tile = 1; tile <= 3; tile++){
-                if(isSafe(tile, block.getBushes())){
-                    boolean satisfied = true;
-                    block.setAssigned(tile); // assign the current tile to the current block
-
-                    String nextBlockId = "-1";
-                    if (blockIds.size() != 0) nextBlockId = blockIds.remove();
-                    else {
-                        Set<Integer> keys = targets.keySet();
-                        for (Integer key : keys) {
-                            // if target has not been reached
-                            if (targets.get(key) != 0) {
-                                satisfied = false;
-                            }
-                        }
-                    }
+    public List<TranspositionTable> getTables(){
+        return tables;
+    }
+}
+/**
+ * Csci6511_p2bonus_natavan_akhundova --- a program to solve CSP.
+ */
 
-                    if (satisfied && coverBoardRecursive(nextBlockId)) return true; // recursively cover other blocks
-                    if (!nextBlockId.equals("-1"))
-                        blockIds.add(nextBlockId);
-                    restorePreviousState(block, tile); // restore the previous state if the color assignment lead to no solution
-                }
+public class Csci6511_p2bonus_natavan_akhundova {
+    static Block[][] grid;                                  // storage for all blocks in the board, grid[x][y] by block position
+    static Block[] blocks;                                  // all blocks ordered by x and then y, the order of covering and output
+    static Queue<int[]> arcs;                               // storage for all arcs/edges in CSP
+    static Map<Integer, ArrayList<Integer>> removedColors;  // storage for removed colors during AC3 Checking
+    static int[] targets;                                   // targets[color-1] - the number of visible bushes needed
+    static int[] tiles;                                     // tiles[tile-1] - the number of available tiles
+    final static int EL_SHAPE = 1;                          // the index of the L shaped tiles
+    final static int OUTER_BOUNDARY = 2;                    // the index of the outer boundary shaped tiles
+    final static int FULL_BLOCK = 3;                        // the index of the full block shaped tiles
+
+        /**
+         * Formats a tiling as one line per block
+         * @param assigned - assigned[i] - the tile covering blocks[i]
+         * @return String
+         */
+        public static String formatTiling(int[] assigned){
+            StringBuilder lines = new StringBuilder();
+            for (int i = 0; i < blocks.length; i++) {
+                int tile = assigned[i];
+                String tileName = "";
+                if (tile == EL_SHAPE) tileName = "EL_SHAPE";
+                else if (tile == OUTER_BOUNDARY) tileName = "OUTER_BOUNDARY";
+                else if (tile == FULL_BLOCK) tileName = "FULL_BLOCK";
+                lines.append(i).append(" 4 ").append(tileName).append('\n');
             }
-            // no tile has been assigned to the block
-            return false;
+            return lines.toString();
         }
 
         /**
-         * Calls the recursive function of covering the board and prints the result
+         * Calls the function of covering the board and prints the result
+         * @param threads - the number of threads searching, 1 for the plain search
+         * @param splitDepth - the number of first blocks split into subproblems, -1 for the default
+         * @param memoMegabytes - the memory of the tables of failed states, 0 for none
+         * @param enumerate - whether every tiling is counted instead of stopping at the first one
+         * @param printAll - whether every tiling counted is printed
          */
-        public static void coverBoard(){
-            String blockId = blockIds.remove(); // pop one blockID to cover
+        public static void coverBoard(int threads, int splitDepth, int memoMegabytes, boolean enumerate, boolean printAll){
+            TileSearch search = new TileSearch(blocks, targets, tiles);
+            if (memoMegabytes > 0 && !search.packable()) {
+                System.out.println("The search states do not fit in 128 bits, searching without the table of failed states");
+                memoMegabytes = 0;
+            }
+
+            // every tiling is printed as soon as it is found, numbered in the order of printing
+            long[] printed = {0};
+            search.setEnumerate(enumerate, !printAll ? null : assigned -> {
+                String tiling = formatTiling(assigned);
+                synchronized (printed) {
+                    System.out.printf("Solution %d:\n%s", ++printed[0], tiling);
+                }
+            });
 
             // find a solution for the CSP
-            boolean solution = coverBoardRecursive(blockId);
+            boolean solution;
+            int[] assigned;
+            long solutions;
+            List<TranspositionTable> tables;
+            if (threads > 1) {
+                if (splitDepth < 0) splitDepth = ParallelTileSearch.defaultSplitDepth(threads, blocks.length);
+                ParallelTileSearch parallel = new ParallelTileSearch(search, threads, splitDepth, memoMegabytes);
+                solution = parallel.solve();
+                assigned = parallel.getSolution();
+                solutions = parallel.getSolutions();
+                tables = parallel.getTables();
+            }
+            else {
+                if (memoMegabytes > 0) search.setFailed(new TranspositionTable(memoMegabytes));
+                solution = search.coverBlocks();
+                assigned = search.getAssigned();
+                solutions = search.getSolutions();
+                tables = search.getFailed() == null ? Collections.emptyList() : List.of(search.getFailed());
+            }
 
             // printing the result
-            if (!solution) System.out.println("Solution does not exist.");
+            if (enumerate) {
+                if (solutions == 0) System.out.println("Solution does not exist.");
+                System.out.printf("Solutions found: %d\n", solutions);
+            }
+            else if (!solution) System.out.println("Solution does not exist.");
             else{
                 System.out.println("Solution exists:");
-
-                SortedSet<String> keys = new TreeSet<>(blocks.keySet());
-                int i = 0;
-                for (String key : keys) {
-                    int tile = blocks.get(key).getAssigned();
-                    String tileName = "";
-                    if (tile == EL_SHAPE) tileName = "EL_SHAPE";
-                    else if (tile == OUTER_BOUNDARY) tileName = "OUTER_BOUNDARY";
-                    else if (tile == FULL_BLOCK) tileName = "FULL_BLOCK";
-                    System.out.printf("%d 4 %s\n", i, tileName);
-                    i++;
+                System.out.print(formatTiling(assigned));
+            }
+            if (memoMegabytes > 0) {
+                long size = 0, hits = 0, evictions = 0;
+                for (TranspositionTable table : tables){
+                    size += table.getSize();
+                    hits += table.getHits();
+                    evictions += table.getEvictions();
                 }
-
-//                Set<Integer> keys2 = targets.keySet();
-//                for (Integer key : keys2) System.out.println(key+" "+targets.get(key));
-//
-//                keys2 = tiles.keySet();
-//                for (Integer key : keys2) System.out.println(key+" "+tiles.get(key));
+                System.out.printf("Failed states stored: %d, found again: %d, evicted: %d\n", size, hits, evictions);
             }
         }
 
+    /**
+     * Finds the block at the position, creating it and growing the grid if needed
+     * @param x - the position of the block on the x line, in blocks
+     * @param y - the position of the block on the y line, in blocks
+     * @return Block
+     */
+    public static Block blockAt(int x, int y){
+        if (x >= grid.length) grid = Arrays.copyOf(grid, Math.max(x + 1, grid.length * 2));
+        if (grid[x] == null) grid[x] = new Block[Math.max(y + 1, 16)];
+        else if (y >= grid[x].length) grid[x] = Arrays.copyOf(grid[x], Math.max(y + 1, grid[x].length * 2));
+        if (grid[x][y] == null) grid[x][y] = new Block(x, y);
+        return grid[x][y];
+    }
+
     /**
      * Stores bushes from a line to blocks and blocks to the block collection
      * @param line - a read line from the board
@@ -312,9 +807,8 @@ public class Csci6511_p2bonus_natavan_akhundova {
             int posX = 0;
             for (int i = 0; i < parts.length; i++){
                 String part = parts[i];
-                String blockId = ""+posX/4+posY/4;
                 // Add blocks to block collection
-                if (!blocks.containsKey(blockId)) blocks.put(blockId, new Block(posX/4, posY/4));
+                Block block = blockAt(posX/4, posY/4);
 
                 // Add marked bushes to blocks
                 if (!parts[i].equals("")) {
@@ -323,7 +817,7 @@ public class Csci6511_p2bonus_natavan_akhundova {
                         posX++;
                         continue;
                     }
-                    blocks.get(blockId).addBush(Integer.parseInt(part));
+                    block.addBush(posX%4, posY%4, Integer.parseInt(part));
                     posX++;
                 }
 
@@ -332,26 +826,36 @@ public class Csci6511_p2bonus_natavan_akhundova {
 
         /**
          * The Main Function; Handles reading an input file and starts the processing
-         * @param args - should consist of an input file
+         * @param args - an input file, then --memo MB, --parallel THREADS, --split BLOCKS, --count or --all
          */
         public static void main(String args[])
         {
-            // verify the input file
-//            if (args.length <= 0){
-//                System.out.println("Argument Not Found ✗\nExiting");
-//                System.exit(0);
-//            }
-            Scanner sc = new Scanner(System.in);
-            String fileName = "tiles.txt";//sc.nextLine();//args[0];   // get the name of the input file
-            blocks = new HashMap<String, Block>();      // initialize storage for blocks
-            targets = new HashMap<Integer, Integer>();  // initialize storage for targets
-            tiles = new HashMap<Integer, Integer>();    // initialize storage for tiles
+            // get the name of the input file, tiles.txt if none is given, and the options of the search
+            boolean named = args.length > 0 && !args[0].startsWith("--");
+            String fileName = named ? args[0] : "tiles.txt";
+            int memoMegabytes = 0, threads = 1, splitDepth = -1;
+            boolean enumerate = false, printAll = false;
+            try {
+                for (int i = named ? 1 : 0; i < args.length; i++){
+                    boolean valued = i + 1 < args.length && !args[i + 1].startsWith("--");
+                    if (args[i].equals("--memo")) memoMegabytes = valued ? Integer.parseInt(args[++i]) : 256;
+                    else if (args[i].equals("--parallel")) threads = valued ? Integer.parseInt(args[++i]) : Runtime.getRuntime().availableProcessors();
+                    else if (args[i].equals("--split") && valued) splitDepth = Integer.parseInt(args[++i]);
+                    else if (args[i].equals("--count")) enumerate = true;
+                    else if (args[i].equals("--all")) enumerate = printAll = true;
+                    else throw new IllegalArgumentException("Unknown option or missing value: " + args[i]);
+                }
+            }
+            catch (IllegalArgumentException ex){
+                System.out.println(ex.getMessage() + " ✗\nUsage: java Csci6511_p2bonus_natavan_akhundova [tiles.txt] " +
+                        "[--memo MB] [--parallel THREADS] [--split BLOCKS] [--count | --all]\nExiting");
+                System.exit(0);
+            }
+            grid = new Block[16][];                     // initialize storage for blocks
+            targets = new int[]{-1, -1, -1, -1};        // initialize storage for targets
+            tiles = new int[]{-1, -1, -1};              // initialize storage for tiles
             arcs = new LinkedList<>();                 // initialize storage for arcs
 
-            // Add default values to targets and tiles map
-            targets.put(1,-1); targets.put(2,-1); targets.put(3,-1); targets.put(4,-1);
-            tiles.put(EL_SHAPE,-1); tiles.put(OUTER_BOUNDARY,-1); tiles.put(FULL_BLOCK,-1);
-
             // ----------- Reading The File -----------
             try (BufferedReader br = new BufferedReader(new FileReader(fileName))) {
                 System.out.println("Reading file inputs...");
@@ -365,19 +869,20 @@ public class Csci6511_p2bonus_natavan_akhundova {
                         String[] parts = line.split("[^0-9]");
                         for (int i = 0; i < parts.length; i++){
                             if (!parts[i].equals("")) {
-                                if (tiles.get(OUTER_BOUNDARY) == -1) tiles.put(OUTER_BOUNDARY, Integer.parseInt(parts[i]));
-                                else if (tiles.get(EL_SHAPE) == -1) tiles.put(EL_SHAPE, Integer.parseInt(parts[i]));
-                                else if (tiles.get(FULL_BLOCK) == -1) tiles.put(FULL_BLOCK, Integer.parseInt(parts[i]));
+                                if (tiles[OUTER_BOUNDARY - 1] == -1) tiles[OUTER_BOUNDARY - 1] = Integer.parseInt(parts[i]);
+                                else if (tiles[EL_SHAPE - 1] == -1) tiles[EL_SHAPE - 1] = Integer.parseInt(parts[i]);
+                                else if (tiles[FULL_BLOCK - 1] == -1) tiles[FULL_BLOCK - 1] = Integer.parseInt(parts[i]);
                             }
                         }
                         continue;
                     }
                     else if(line.substring(1,2).equals(":")) {
                         String[] parts = line.split(":");
-                        if (targets.get(1) == -1) targets.put(1, Integer.parseInt(parts[1]));
-                        else if (targets.get(2) == -1) targets.put(2, Integer.parseInt(parts[1]));
-                        else if (targets.get(3) == -1) targets.put(3, Integer.parseInt(parts[1]));
-                        else if (targets.get(4) == -1) targets.put(4, Integer.parseInt(parts[1]));
+                        for (int i = 0; i < targets.length; i++){
+                            if (targets[i] != -1) continue;
+                            targets[i] = Integer.parseInt(parts[1]);
+                            break;
+                        }
                         continue;
                     }
 
@@ -396,13 +901,16 @@ public class Csci6511_p2bonus_natavan_akhundova {
                 }
                 System.out.println("Done reading file inputs ✓");
 
-                // Store all edges of the graph
-                Set<String> keys = blocks.keySet();
-                blockIds = new LinkedList<>(keys);  // store block ids to the queue
+                // Store all blocks in the order of their positions
+                int count = 0;
+                for (Block[] column : grid) if (column != null) for (Block block : column) if (block != null) count++;
+                blocks = new Block[count];
+                count = 0;
+                for (Block[] column : grid) if (column != null) for (Block block : column) if (block != null) blocks[count++] = block;
                 System.out.printf("The board size is %d.\nTargets: \n\t1: %d\n\t2: %d\n\t3: %d\n\t4: %d\n" +
                                 "The number of tiles: \n\tEL_SHAPE: %d\n\tOUTER_BOUNDARY: %d\n\tFULL_BLOCK: %d\n",
-                        boardSize,targets.get(1),targets.get(2),targets.get(3),targets.get(4),
-                        tiles.get(EL_SHAPE), tiles.get(OUTER_BOUNDARY), tiles.get(FULL_BLOCK));
+                        boardSize,targets[0],targets[1],targets[2],targets[3],
+                        tiles[EL_SHAPE - 1], tiles[OUTER_BOUNDARY - 1], tiles[FULL_BLOCK - 1]);
             }
             catch (Exception ex){
                 ex.printStackTrace();
@@ -412,6 +920,6 @@ public class Csci6511_p2bonus_natavan_akhundova {
             // ----------- End Reading The File -----------
 
             // ----------- Covering The Board -----------
-            coverBoard();
+            coverBoard(threads, splitDepth, memoMegabytes, enumerate, printAll);
         }
 }
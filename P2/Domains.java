@@ -0,0 +1,106 @@
+/**
+ * Domains --- the domains of all vertices stored as bitmasks in one flat array.
+ * A domain takes a single long when K <= 64, and (K+63)/64 consecutive longs otherwise.
+ */
+class Domains{
+    private final int K;            // the number of colors given in the CSP
+    private final int words;        // the number of longs per domain
+    private final long[] bits;      // the domain of vertex v starts at bits[v*words]
+
+    /**
+     * Constructor function for initializing all domains to the full set of colors
+     * @param n - the number of vertices
+     * @param K - the number of colors given in the CSP
+     */
+    Domains(int n, int K){
+        this.K = K;
+        this.words = (K + 63) >>> 6;
+        this.bits = new long[n * words];
+        for (int v = 0; v < n; v++) fill(v);
+    }
+
+    /**
+     * Resets the domain of the vertex to the full set of colors
+     * @param v - index of the vertex
+     */
+    public void fill(int v){
+        int base = v * words;
+        for (int i = 0; i < words; i++){
+            int remaining = K - (i << 6);
+            bits[base + i] = remaining >= 64 ? -1L : (1L << remaining) - 1;
+        }
+    }
+
+    public boolean contains(int v, int color){
+        return (bits[v * words + (color >>> 6)] & (1L << color)) != 0;
+    }
+
+    public void add(int v, int color){
+        bits[v * words + (color >>> 6)] |= 1L << color;
+    }
+
+    /**
+     * Removes the color from the domain of the vertex
+     * @param v - index of the vertex
+     * @param color - the color to remove
+     * @return true if the color was in the domain
+     */
+    public boolean remove(int v, int color){
+        int i = v * words + (color >>> 6);
+        long mask = 1L << color;
+        if ((bits[i] & mask) == 0) return false;
+        bits[i] &= ~mask;
+        return true;
+    }
+
+    /**
+     * Counts the colors in the domain of the vertex
+     * @param v - index of the vertex
+     * @return int
+     */
+    public int size(int v){
+        if (words == 1) return Long.bitCount(bits[v]);
+        int size = 0;
+        for (int i = v * words, end = i + words; i < end; i++) size += Long.bitCount(bits[i]);
+        return size;
+    }
+
+    /**
+     * Finds the smallest color in the domain that is not less than the given one
+     * @param v - index of the vertex
+     * @param from - the color to start from
+     * @return the color, or -1 if there is none
+     */
+    public int next(int v, int from){
+        if (from >= K) return -1;
+        if (words == 1) {
+            long word = bits[v] & (-1L << from);
+            return word == 0 ? -1 : Long.numberOfTrailingZeros(word);
+        }
+        int base = v * words;
+        for (int i = from >>> 6; i < words; i++){
+            long word = bits[base + i];
+            if (i == from >>> 6) word &= -1L << from;
+            if (word != 0) return (i << 6) + Long.numberOfTrailingZeros(word);
+        }
+        return -1;
+    }
+
+    /**
+     * Gives one word of the bitmask of the domain, for word-parallel set operations
+     * @param v - index of the vertex
+     * @param i - index of the word, below getWords()
+     * @return colors 64*i..64*i+63 of the domain as bits
+     */
+    public long word(int v, int i){
+        return bits[v * words + i];
+    }
+
+    public int getWords(){
+        return words;
+    }
+
+    public int getK(){
+        return K;
+    }
+}
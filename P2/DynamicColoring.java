@@ -0,0 +1,394 @@
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * DynamicColoring --- a graph that changes a little at a time, together with a K-coloring of it that is repaired
+ * after every change instead of being searched again. The vertices a change leaves in conflict are recolored
+ * by the backtracking search together with their neighbourhood of radius 0, 1, 2, ..., while the colors of the
+ * vertices just outside are fixed as a prefix, so their forward checking prunes the search. Only if no
+ * neighbourhood up to MAX_RADIUS can be recolored is the whole graph searched again.
+ */
+class DynamicColoring{
+    final static int MAX_RADIUS = 4;            // the widest neighbourhood recolored locally
+    final static int MAX_REGION = 1 << 14;      // the most vertices recolored locally
+    final static long REGION_MILLIS = 1000;     // the time budget of recoloring one neighbourhood
+
+    private final int K;                        // the number of colors
+    private final Map<Integer, Integer> indexOf; // the slot of every vertex id
+    private int[] ids;                          // the id of the vertex in every slot, undefined for free slots
+    private int[][] adjacency;                  // unsorted neighbour slots of every slot
+    private int[] degree;                       // the number of used entries of every adjacency list
+    private int[] color;                        // the color of every slot, -1 if the vertex has none yet
+    private boolean[] live;                     // whether a slot holds a vertex
+    private int[] freeSlots;                    // slots of removed vertices, reused by added ones
+    private int freeCount = 0;                  // the number of free slots
+    private int slotCount;                      // the number of slots ever used
+    private int edgeCount = 0;                  // the number of edges
+
+    private int[] dirty;                        // slots in conflict after the last change
+    private int dirtyCount = 0;                 // the number of used entries of dirty
+    private int[] stamp;                        // stamp[s] == round if slot s is in the current neighbourhood
+    private int[] local;                        // the index of a slot in the current neighbourhood graph
+    private int round = 0;                      // the number of neighbourhoods built
+
+    private int lastRadius = -1;                // the radius of the last repair, -1 if the whole graph was searched
+    private int lastRecolored = 0;              // the number of vertices the last repair has searched
+
+    /**
+     * Constructor function for initializing variables
+     * @param graph - the graph
+     * @param K - the number of colors
+     * @param assigned - a coloring of the graph, e.g the result of a search; vertices with -1 are colored by repair()
+     */
+    DynamicColoring(Graph graph, int K, int[] assigned){
+        int n = graph.size();
+        int[] offsets = graph.getOffsets();
+        int[] neighbours = graph.getNeighbours();
+        this.K = K;
+        this.indexOf = new HashMap<>(n * 2);
+        int capacity = Math.max(16, n);
+        this.ids = new int[capacity];
+        this.adjacency = new int[capacity][];
+        this.degree = new int[capacity];
+        this.color = new int[capacity];
+        this.live = new boolean[capacity];
+        this.freeSlots = new int[16];
+        this.dirty = new int[16];
+        this.stamp = new int[capacity];
+        this.local = new int[capacity];
+        for (int v = 0; v < n; v++){
+            ids[v] = graph.getId(v);
+            indexOf.put(ids[v], v);
+            adjacency[v] = Arrays.copyOfRange(neighbours, offsets[v], Math.max(offsets[v + 1], offsets[v] + 4));
+            degree[v] = graph.degree(v);
+            color[v] = assigned[v];
+            live[v] = true;
+            if (color[v] == -1) markDirty(v);
+        }
+        this.slotCount = n;
+        this.edgeCount = graph.arcCount() / 2;
+    }
+
+    // ----------- Applying Changes -----------
+
+    /**
+     * Applies a change and repairs the coloring
+     * @param delta - the change; removals are applied before additions
+     * @return SATISFIABLE if the graph is colored again, UNSATISFIABLE if it cannot be colored with K colors
+     *         (the old colors are kept and some vertices are left in conflict), UNKNOWN if a budget ran out
+     * @throws Exception - if the search of the whole graph has failed
+     */
+    public ColoringSolver.Status apply(GraphDelta delta) throws Exception{
+        int[] edges = delta.getRemovedEdges();
+        for (int i = 0; i < delta.getRemovedEdgeCount(); i++){
+            Integer a = indexOf.get(edges[2 * i]), b = indexOf.get(edges[2 * i + 1]);
+            if (a != null && b != null) disconnect(a, b);
+        }
+        int[] vertices = delta.getRemovedVertices();
+        for (int i = 0; i < delta.getRemovedVertexCount(); i++){
+            Integer s = indexOf.remove(vertices[i]);
+            if (s == null) continue;
+            while (degree[s] > 0) disconnect(s, adjacency[s][degree[s] - 1]);
+            live[s] = false;
+            if (freeCount == freeSlots.length) freeSlots = Arrays.copyOf(freeSlots, freeCount * 2);
+            freeSlots[freeCount++] = s;
+        }
+        vertices = delta.getAddedVertices();
+        for (int i = 0; i < delta.getAddedVertexCount(); i++) slotOf(vertices[i]);
+        edges = delta.getAddedEdges();
+        for (int i = 0; i < delta.getAddedEdgeCount(); i++){
+            int a = slotOf(edges[2 * i]), b = slotOf(edges[2 * i + 1]);
+            if (a == b || contains(a, b)) continue;
+            connect(a, b);
+            // of two endpoints of the same color, the one with fewer neighbours is recolored
+            if (color[a] != -1 && color[a] == color[b]) markDirty(degree[a] <= degree[b] ? a : b);
+        }
+        return repair();
+    }
+
+    /**
+     * Gives the slot of a vertex id, adding an uncolored vertex if it is not in the graph
+     */
+    private int slotOf(int id){
+        Integer slot = indexOf.get(id);
+        if (slot != null) return slot;
+        int s = freeCount > 0 ? freeSlots[--freeCount] : slotCount++;
+        if (s == ids.length) grow(s * 2);
+        ids[s] = id;
+        if (adjacency[s] == null) adjacency[s] = new int[4];
+        degree[s] = 0;
+        color[s] = -1;
+        live[s] = true;
+        indexOf.put(id, s);
+        markDirty(s);
+        return s;
+    }
+
+    private void grow(int capacity){
+        ids = Arrays.copyOf(ids, capacity);
+        adjacency = Arrays.copyOf(adjacency, capacity);
+        degree = Arrays.copyOf(degree, capacity);
+        color = Arrays.copyOf(color, capacity);
+        live = Arrays.copyOf(live, capacity);
+        stamp = Arrays.copyOf(stamp, capacity);
+        local = Arrays.copyOf(local, capacity);
+    }
+
+    private void markDirty(int s){
+        if (dirtyCount == dirty.length) dirty = Arrays.copyOf(dirty, dirtyCount * 2);
+        dirty[dirtyCount++] = s;
+    }
+
+    private boolean contains(int a, int b){
+        // the shorter list is scanned
+        if (degree[b] < degree[a]) {int t = a; a = b; b = t;}
+        for (int i = 0; i < degree[a]; i++) if (adjacency[a][i] == b) return true;
+        return false;
+    }
+
+    private void connect(int a, int b){
+        append(a, b);
+        append(b, a);
+        edgeCount++;
+    }
+
+    private void append(int a, int b){
+        if (degree[a] == adjacency[a].length) adjacency[a] = Arrays.copyOf(adjacency[a], degree[a] * 2);
+        adjacency[a][degree[a]++] = b;
+    }
+
+    private void disconnect(int a, int b){
+        if (drop(a, b) && drop(b, a)) edgeCount--;
+    }
+
+    private boolean drop(int a, int b){
+        for (int i = 0; i < degree[a]; i++){
+            if (adjacency[a][i] != b) continue;
+            adjacency[a][i] = adjacency[a][--degree[a]];
+            return true;
+        }
+        return false;
+    }
+
+    // ----------- Repairing The Coloring -----------
+
+    /**
+     * Recolors the vertices in conflict within ever wider neighbourhoods, then the whole graph
+     * @return the outcome, as in apply()
+     * @throws Exception - if the search of the whole graph has failed
+     */
+    public ColoringSolver.Status repair() throws Exception{
+        // drop the slots removed or no longer in conflict since they were marked
+        int count = 0;
+        for (int i = 0; i < dirtyCount; i++){
+            int s = dirty[i];
+            if (live[s] && (color[s] == -1 || conflicting(s))) dirty[count++] = s;
+        }
+        dirtyCount = count;
+        lastRecolored = 0;
+        lastRadius = 0;
+        if (dirtyCount == 0) return ColoringSolver.Status.SATISFIABLE;
+
+        ColoringSolver.Status status = ColoringSolver.Status.UNKNOWN;
+        for (int radius = 0; radius <= MAX_RADIUS; radius++){
+            status = recolorRegion(radius);
+            if (status == ColoringSolver.Status.SATISFIABLE || status == null) break;
+        }
+        if (status != ColoringSolver.Status.SATISFIABLE) status = recolorAll();
+        if (status == ColoringSolver.Status.SATISFIABLE) dirtyCount = 0;
+        return status;
+    }
+
+    private boolean conflicting(int s){
+        for (int i = 0; i < degree[s]; i++) if (color[adjacency[s][i]] == color[s]) return true;
+        return false;
+    }
+
+    /**
+     * Recolors the vertices in conflict and all vertices within a radius of them, with the colors of the
+     * vertices bordering them fixed
+     * @param radius - the radius of the neighbourhood
+     * @return the outcome of the search, or null if the neighbourhood is too large to be searched locally
+     */
+    private ColoringSolver.Status recolorRegion(int radius){
+        // ----------- Collecting The Neighbourhood -----------
+        // breadth first from the vertices in conflict; region holds the free vertices, then the fixed border
+        round++;
+        int[] region = new int[Math.min(MAX_REGION, Math.max(16, dirtyCount * 4))];
+        int size = 0;
+        for (int i = 0; i < dirtyCount; i++){
+            if (stamp[dirty[i]] == round) continue;
+            stamp[dirty[i]] = round;
+            region[size++] = dirty[i];
+        }
+        for (int r = 0, head = 0; r <= radius; r++){
+            // the last layer is the border, its vertices keep their colors
+            int tail = size;
+            for (; head < tail; head++){
+                int s = region[head];
+                for (int i = 0; i < degree[s]; i++){
+                    int u = adjacency[s][i];
+                    if (stamp[u] == round) continue;
+                    if (size == MAX_REGION) return null;
+                    stamp[u] = round;
+                    if (size == region.length) region = Arrays.copyOf(region, size * 2);
+                    region[size++] = u;
+                }
+            }
+            // every vertex without a color is in conflict, so the border is fully colored
+            if (r == radius) return searchRegion(region, tail, size, radius);
+        }
+        return null;
+    }
+
+    /**
+     * Searches the neighbourhood graph
+     * @param region - slots of the neighbourhood, the free ones first
+     * @param free - the number of free slots
+     * @param size - the number of slots
+     * @param radius - the radius of the neighbourhood
+     * @return the outcome of the search
+     */
+    private ColoringSolver.Status searchRegion(int[] region, int free, int size, int radius){
+        // ----------- Building The Neighbourhood Graph -----------
+        // edges between border vertices are left out, their colors are fixed anyway
+        for (int i = 0; i < size; i++) local[region[i]] = i;
+        int[] offsets = new int[size + 1];
+        for (int i = 0; i < size; i++){
+            int s = region[i], inside = 0;
+            for (int j = 0; j < degree[s]; j++){
+                int u = adjacency[s][j];
+                if (stamp[u] == round && (i < free || local[u] < free)) inside++;
+            }
+            offsets[i + 1] = offsets[i] + inside;
+        }
+        int[] neighbours = new int[offsets[size]];
+        int[] localIds = new int[size];
+        int[] hint = new int[size];
+        for (int i = 0; i < size; i++){
+            int s = region[i], write = offsets[i];
+            localIds[i] = ids[s];
+            hint[i] = color[s];
+            for (int j = 0; j < degree[s]; j++){
+                int u = adjacency[s][j];
+                if (stamp[u] == round && (i < free || local[u] < free)) neighbours[write++] = local[u];
+            }
+            Arrays.sort(neighbours, offsets[i], offsets[i + 1]);
+        }
+        Graph graph = new Graph(localIds, offsets, neighbours);
+
+        // ----------- Searching With A Fixed Border -----------
+        ColoringSolver solver = new ColoringSolver(graph, K, new SolverOptions());
+        solver.setHint(hint);
+        int[] borderVertices = new int[size - free];
+        int[] borderColors = new int[size - free];
+        for (int i = free; i < size; i++){
+            borderVertices[i - free] = i;
+            borderColors[i - free] = color[region[i]];
+        }
+        lastRadius = radius;
+        lastRecolored = free;
+        if (!solver.applyPrefix(borderVertices, borderColors, borderVertices.length)) return ColoringSolver.Status.UNSATISFIABLE;
+
+        AtomicBoolean stop = new AtomicBoolean(false);
+        solver.setStop(stop);
+        ScheduledFuture<?> timeout = GraphColoring.TIMER.schedule(() -> stop.set(true), REGION_MILLIS, TimeUnit.MILLISECONDS);
+        ColoringSolver.Status status = solver.solve();
+        timeout.cancel(false);
+        if (status == ColoringSolver.Status.SATISFIABLE) {
+            int[] assigned = solver.getAssigned();
+            for (int i = 0; i < free; i++) color[region[i]] = assigned[i];
+        }
+        return status;
+    }
+
+    /**
+     * Searches the whole graph again, keeping the old colors if it cannot be colored
+     * @return the outcome of the search
+     * @throws Exception - if the search has failed
+     */
+    private ColoringSolver.Status recolorAll() throws Exception{
+        Graph graph = toGraph();
+        lastRadius = -1;
+        lastRecolored = graph.size();
+        ColoringResult result = new GraphColoring(graph, K, new ColoringOptions()).solve();
+        if (result.getStatus() == ColoringSolver.Status.SATISFIABLE) {
+            int[] assigned = result.getAssigned();
+            for (int v = 0; v < graph.size(); v++) color[indexOf.get(graph.getId(v))] = assigned[v];
+        }
+        return result.getStatus();
+    }
+
+    /**
+     * Builds the current graph in CSR form, with its vertices in ascending order of their ids
+     * @return Graph
+     */
+    public Graph toGraph(){
+        int n = indexOf.size();
+        long[] byId = new long[n];
+        int write = 0;
+        for (int s = 0; s < slotCount; s++) if (live[s]) byId[write++] = ((long) ids[s] << 32) | s;
+        Arrays.sort(byId);
+
+        int[] graphIds = new int[n];
+        int[] offsets = new int[n + 1];
+        for (int v = 0; v < n; v++){
+            int s = (int) byId[v];
+            graphIds[v] = ids[s];
+            local[s] = v;
+            offsets[v + 1] = offsets[v] + degree[s];
+        }
+        int[] neighbours = new int[offsets[n]];
+        for (int v = 0; v < n; v++){
+            int s = (int) byId[v];
+            for (int i = 0; i < degree[s]; i++) neighbours[offsets[v] + i] = local[adjacency[s][i]];
+            Arrays.sort(neighbours, offsets[v], offsets[v + 1]);
+        }
+        return new Graph(graphIds, offsets, neighbours);
+    }
+
+    /**
+     * Gives the colors of the vertices of a graph built by toGraph()
+     * @param graph - the graph
+     * @return the color of every vertex of the graph
+     */
+    public int[] colorsOf(Graph graph){
+        int[] colors = new int[graph.size()];
+        for (int v = 0; v < graph.size(); v++) colors[v] = colorOf(graph.getId(v));
+        return colors;
+    }
+
+    /**
+     * Gives the color of a vertex
+     * @param id - the id of the vertex
+     * @return the color, -1 if the vertex is not in the graph or has no color
+     */
+    public int colorOf(int id){
+        Integer slot = indexOf.get(id);
+        return slot == null ? -1 : color[slot];
+    }
+
+    /**
+     * Getter functions for class variables
+     */
+
+    public int size(){
+        return indexOf.size();
+    }
+
+    public int getEdgeCount(){
+        return edgeCount;
+    }
+
+    public int getLastRadius(){
+        return lastRadius;
+    }
+
+    public int getLastRecolored(){
+        return lastRecolored;
+    }
+}
@@ -0,0 +1,301 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.*;
+
+/**
+ * EdgeListLoader --- reads a graph file of the form
+ *     # comment lines, anywhere
+ *     colors = K
+ *     from,to
+ *     ...
+ * or in the DIMACS .col format, which gives no number of colors
+ *     c comment lines, anywhere
+ *     p edge N M
+ *     e from to
+ *     ...
+ * by memory-mapping it and parsing the integers straight from the bytes. The part after the header is split
+ * into chunks aligned to line boundaries, which are mapped and parsed in parallel without creating Strings.
+ * As in the edge list, only vertices with an edge are part of the graph.
+ */
+class EdgeListLoader{
+    final static long MIN_CHUNK = 1 << 20;      // the smallest chunk worth a task of its own, in bytes
+    final static long MAX_CHUNK = 1 << 30;      // the largest chunk, a single mapping has to stay below 2 GB
+    final static int SCAN_WINDOW = 1 << 12;     // bytes read at once while looking for a line boundary
+
+    private final String fileName;              // the name of the input file
+    private final int threads;                  // the number of threads parsing chunks
+    private int K = -1;                         // the number of colors read from the header, -1 in the DIMACS format
+    private boolean dimacs = false;             // whether the file is in the DIMACS format
+    private int edgeCount = 0;                  // the number of edges read by the last load()
+
+    /**
+     * Constructor function for initializing variables
+     * @param fileName - the name of the input file
+     * @param threads - the number of threads parsing chunks
+     */
+    EdgeListLoader(String fileName, int threads){
+        this.fileName = fileName;
+        this.threads = Math.max(1, threads);
+    }
+
+    /**
+     * Edges --- the edges parsed from one chunk, in growable arrays
+     */
+    private static class Edges{
+        int[] from;                             // first endpoints of the edges
+        int[] to;                               // second endpoints of the edges
+        int count = 0;                          // the number of used entries
+
+        Edges(int capacity){
+            this.from = new int[Math.max(16, capacity)];
+            this.to = new int[Math.max(16, capacity)];
+        }
+
+        void add(int a, int b){
+            if (count == from.length) {
+                from = Arrays.copyOf(from, count * 2);
+                to = Arrays.copyOf(to, count * 2);
+            }
+            from[count] = a;
+            to[count++] = b;
+        }
+    }
+
+    /**
+     * Reads the file and builds its graph
+     * @return Graph
+     * @throws IOException - if the file cannot be read or is malformed
+     * @throws InterruptedException - if the waiting thread is interrupted
+     * @throws ExecutionException - if a chunk could not be parsed
+     */
+    public Graph load() throws IOException, InterruptedException, ExecutionException{
+        try (FileChannel channel = FileChannel.open(Paths.get(fileName), StandardOpenOption.READ)) {
+            long size = channel.size();
+            long start = readHeader(channel, size);
+
+            // ----------- Splitting Into Chunks -----------
+            long remaining = size - start;
+            long chunk = Math.min(MAX_CHUNK, Math.max(MIN_CHUNK, remaining / (threads * 4L) + 1));
+            List<long[]> chunks = new ArrayList<>();
+            for (long s = start; s < size; ){
+                long e = s + chunk >= size ? size : lineEnd(channel, s + chunk, size);
+                chunks.add(new long[]{s, e});
+                s = e;
+            }
+
+            // ----------- Parsing Chunks In Parallel -----------
+            Edges[] parsed = new Edges[chunks.size()];
+            ExecutorService pool = Executors.newFixedThreadPool(Math.max(1, Math.min(threads, chunks.size())));
+            List<Future<?>> futures = new ArrayList<>();
+            try {
+                for (int i = 0; i < chunks.size(); i++){
+                    int c = i;
+                    futures.add(pool.submit(() -> {
+                        long s = chunks.get(c)[0], e = chunks.get(c)[1];
+                        parsed[c] = parseEdges(channel.map(FileChannel.MapMode.READ_ONLY, s, e - s), s, dimacs);
+                        return null;
+                    }));
+                }
+                for (Future<?> future : futures) future.get();
+            }
+            finally {
+                pool.shutdownNow();
+            }
+
+            // concatenate the chunks in file order and build the adjacency arrays from them
+            edgeCount = 0;
+            for (Edges edges : parsed) edgeCount += edges.count;
+            int[] from = new int[edgeCount];
+            int[] to = new int[edgeCount];
+            int write = 0;
+            for (Edges edges : parsed){
+                System.arraycopy(edges.from, 0, from, write, edges.count);
+                System.arraycopy(edges.to, 0, to, write, edges.count);
+                write += edges.count;
+            }
+            return Graph.fromEdges(from, to, edgeCount);
+        }
+    }
+
+    /**
+     * Reads the comment lines and the "colors = K" or "p edge N M" header at the start of the file
+     * @param channel - the channel of the file
+     * @param size - the size of the file
+     * @return the position right after the header line
+     * @throws IOException - if there is no header
+     */
+    private long readHeader(FileChannel channel, long size) throws IOException{
+        MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, Math.min(size, MAX_CHUNK));
+        int limit = buffer.limit();
+        int p = 0;
+        while (p < limit){
+            int lineStart = skipBlanks(buffer, p, limit);
+            int lineEnd = lineStart;
+            while (lineEnd < limit && buffer.get(lineEnd) != '\n') lineEnd++;
+            int contentEnd = lineEnd > lineStart && buffer.get(lineEnd - 1) == '\r' ? lineEnd - 1 : lineEnd;
+            if (lineStart == contentEnd || buffer.get(lineStart) == '#' || buffer.get(lineStart) == 'c' && !isColors(buffer, lineStart, contentEnd)) {
+                p = lineEnd + 1;
+                continue;
+            }
+
+            // "p edge N M" starts a DIMACS file, N and M are not needed
+            if (buffer.get(lineStart) == 'p') {
+                int[] value = new int[2];
+                int q = skipBlanks(buffer, lineStart + 1, contentEnd);
+                for (char letter : "edge".toCharArray()){
+                    if (q == contentEnd || buffer.get(q++) != letter) throw new IOException("Malformed header at byte " + lineStart);
+                }
+                q = parseInt(buffer, skipBlanks(buffer, q, contentEnd), contentEnd, value, 0);
+                if (q != -1) q = parseInt(buffer, skipBlanks(buffer, q, contentEnd), contentEnd, value, 1);
+                if (q == -1 || skipBlanks(buffer, q, contentEnd) != contentEnd) throw new IOException("Malformed header at byte " + lineStart);
+                dimacs = true;
+                return Math.min(size, lineEnd + 1L);
+            }
+
+            // the first other line holds the number of colors after '='
+            int eq = lineStart;
+            while (eq < contentEnd && buffer.get(eq) != '=') eq++;
+            if (eq == contentEnd) throw new IOException("Missing \"colors = K\" header");
+            int[] value = new int[2];
+            int after = parseInt(buffer, skipBlanks(buffer, eq + 1, contentEnd), contentEnd, value, 0);
+            if (after == -1 || skipBlanks(buffer, after, contentEnd) != contentEnd) throw new IOException("Malformed header at byte " + lineStart);
+            K = value[0];
+            return Math.min(size, lineEnd + 1L);
+        }
+        throw new IOException("Missing \"colors = K\" header");
+    }
+
+    /**
+     * Checks if a line starting with 'c' is the "colors = K" header rather than a DIMACS comment
+     */
+    private static boolean isColors(ByteBuffer buffer, int lineStart, int contentEnd){
+        int p = lineStart;
+        while (p < contentEnd && Character.isLetter(buffer.get(p))) p++;
+        p = skipBlanks(buffer, p, contentEnd);
+        return p < contentEnd && buffer.get(p) == '=';
+    }
+
+    /**
+     * Finds the end of the line a position is in
+     * @param channel - the channel of the file
+     * @param position - a position in the file
+     * @param size - the size of the file
+     * @return the position after the next line feed, or size if there is none
+     * @throws IOException - if the file cannot be read
+     */
+    private static long lineEnd(FileChannel channel, long position, long size) throws IOException{
+        ByteBuffer window = ByteBuffer.allocate(SCAN_WINDOW);
+        while (position < size){
+            window.clear();
+            int read = channel.read(window, position);
+            if (read <= 0) break;
+            for (int i = 0; i < read; i++){
+                if (window.get(i) == '\n') return position + i + 1;
+            }
+            position += read;
+        }
+        return size;
+    }
+
+    /**
+     * Parses the edge lines of a chunk, skipping blank and comment lines
+     * @param buffer - the mapped chunk
+     * @param offset - the position of the chunk in the file, for error messages
+     * @param dimacs - whether the lines are of the form "e from to" and comments start with 'c'
+     * @return Edges
+     * @throws IOException - if a line is not of the form "from,to" or "e from to"
+     */
+    private static Edges parseEdges(MappedByteBuffer buffer, long offset, boolean dimacs) throws IOException{
+        int limit = buffer.limit();
+        Edges edges = new Edges(limit / 8);
+        int[] value = new int[2];
+        int p = 0;
+        while (p < limit){
+            p = skipBlanks(buffer, p, limit);
+            if (p == limit) break;
+            byte b = buffer.get(p);
+            if (b == '\n' || b == '\r') {p++; continue;}
+            if (b == (dimacs ? 'c' : '#')) {
+                while (p < limit && buffer.get(p) != '\n') p++;
+                continue;
+            }
+
+            // from [blanks] , [blanks] to [blanks] line end, or e blanks from blanks to [blanks] line end
+            int lineStart = p;
+            if (dimacs) {
+                p = b == 'e' ? skipBlanks(buffer, p + 1, limit) : -1;
+                if (p == lineStart + 1) p = -1;
+            }
+            if (p != -1) p = parseInt(buffer, p, limit, value, 0);
+            int separator = p == -1 ? -1 : skipBlanks(buffer, p, limit);
+            if (dimacs) p = separator == p ? -1 : parseInt(buffer, separator, limit, value, 1);
+            else if (separator != -1 && separator < limit && buffer.get(separator) == ',') p = parseInt(buffer, skipBlanks(buffer, separator + 1, limit), limit, value, 1);
+            else p = -1;
+            if (p != -1) p = skipBlanks(buffer, p, limit);
+            if (p != -1 && p < limit && buffer.get(p) == '\r') p++;
+            if (p == -1 || (p < limit && buffer.get(p) != '\n')) throw new IOException("Malformed edge at byte " + (offset + lineStart));
+            edges.add(value[0], value[1]);
+        }
+        return edges;
+    }
+
+    /**
+     * Skips spaces and tabs
+     * @return the position of the first other byte, or limit
+     */
+    private static int skipBlanks(ByteBuffer buffer, int p, int limit){
+        while (p < limit && (buffer.get(p) == ' ' || buffer.get(p) == '\t')) p++;
+        return p;
+    }
+
+    /**
+     * Parses a decimal integer with an optional sign
+     * @param buffer - the bytes
+     * @param p - the position of the integer
+     * @param limit - the end of the bytes
+     * @param value - the array the integer is stored in
+     * @param index - the index the integer is stored at
+     * @return the position after the integer, or -1 if there is no integer or it does not fit in an int
+     */
+    private static int parseInt(ByteBuffer buffer, int p, int limit, int[] value, int index){
+        boolean negative = false;
+        if (p < limit && (buffer.get(p) == '-' || buffer.get(p) == '+')) negative = buffer.get(p++) == '-';
+        int start = p;
+        long result = 0;
+        while (p < limit){
+            int digit = buffer.get(p) - '0';
+            if (digit < 0 || digit > 9) break;
+            result = result * 10 + digit;
+            if (result > Integer.MAX_VALUE + 1L) return -1;
+            p++;
+        }
+        if (p == start) return -1;
+        if (negative) result = -result;
+        if (result > Integer.MAX_VALUE) return -1;
+        value[index] = (int) result;
+        return p;
+    }
+
+    /**
+     * Getter functions for class variables
+     */
+
+    public int getK(){
+        return K;
+    }
+
+    public int getEdgeCount(){
+        return edgeCount;
+    }
+
+    public boolean isDimacs(){
+        return dimacs;
+    }
+}
@@ -0,0 +1,232 @@
+import java.util.Arrays;
+
+/**
+ * Graph --- an undirected graph in compressed sparse row (CSR) form over dense vertex indexes 0..n-1.
+ */
+class Graph{
+    private final int[] ids;            // original id of every dense vertex index, in ascending order
+    private final int[] offsets;        // neighbours of vertex v are neighbours[offsets[v]..offsets[v+1])
+    private final int[] neighbours;     // concatenated, sorted and de-duplicated adjacency lists
+
+    /**
+     * Constructor function for initializing variables
+     * @param ids - original ids of the dense vertex indexes
+     * @param offsets - the start of every adjacency list, of length n+1
+     * @param neighbours - the concatenated adjacency lists
+     */
+    Graph(int[] ids, int[] offsets, int[] neighbours){
+        this.ids = ids;
+        this.offsets = offsets;
+        this.neighbours = neighbours;
+    }
+
+    /**
+     * Builds the graph from a list of undirected edges given with original (sparse) vertex ids
+     * @param from - the first endpoints of the edges
+     * @param to - the second endpoints of the edges
+     * @param edgeCount - the number of used entries in from and to
+     * @return Graph
+     */
+    public static Graph fromEdges(int[] from, int[] to, int edgeCount){
+        // ----------- Dense Vertex Indexing -----------
+        int min = Integer.MAX_VALUE, max = Integer.MIN_VALUE;
+        for (int i = 0; i < edgeCount; i++){
+            min = Math.min(min, Math.min(from[i], to[i]));
+            max = Math.max(max, Math.max(from[i], to[i]));
+        }
+        int[] ids;
+        int[] fromIndex = new int[edgeCount];
+        int[] toIndex = new int[edgeCount];
+        if (edgeCount > 0 && (long) max - min < 4L * edgeCount + 1024) {
+            // ids are compact enough for a lookup table indexed by id - min
+            int[] indexOf = new int[max - min + 1];
+            for (int i = 0; i < edgeCount; i++){
+                indexOf[from[i] - min] = 1;
+                indexOf[to[i] - min] = 1;
+            }
+            int n = 0;
+            for (int id = 0; id < indexOf.length; id++) if (indexOf[id] != 0) indexOf[id] = ++n;
+            ids = new int[n];
+            for (int id = 0; id < indexOf.length; id++) if (indexOf[id] != 0) ids[indexOf[id] - 1] = id + min;
+            for (int i = 0; i < edgeCount; i++){
+                fromIndex[i] = indexOf[from[i] - min] - 1;
+                toIndex[i] = indexOf[to[i] - min] - 1;
+            }
+        }
+        else {
+            // sparse ids are sorted, de-duplicated and searched
+            ids = new int[edgeCount * 2];
+            System.arraycopy(from, 0, ids, 0, edgeCount);
+            System.arraycopy(to, 0, ids, edgeCount, edgeCount);
+            Arrays.parallelSort(ids);
+            int n = 0;
+            for (int i = 0; i < ids.length; i++){
+                if (n == 0 || ids[n - 1] != ids[i]) ids[n++] = ids[i];
+            }
+            ids = Arrays.copyOf(ids, n);
+            for (int i = 0; i < edgeCount; i++){
+                fromIndex[i] = Arrays.binarySearch(ids, from[i]);
+                toIndex[i] = Arrays.binarySearch(ids, to[i]);
+            }
+        }
+        int n = ids.length;
+
+        // ----------- Counting Degrees -----------
+        int[] offsets = new int[n + 1];
+        for (int i = 0; i < edgeCount; i++){
+            if (fromIndex[i] == toIndex[i]) continue; // a loop cannot be stored as an arc
+            offsets[fromIndex[i] + 1]++;
+            offsets[toIndex[i] + 1]++;
+        }
+        for (int v = 0; v < n; v++) offsets[v + 1] += offsets[v];
+
+        // ----------- Filling Adjacency Lists -----------
+        int[] neighbours = new int[offsets[n]];
+        int[] fill = Arrays.copyOf(offsets, n);
+        for (int i = 0; i < edgeCount; i++){
+            if (fromIndex[i] == toIndex[i]) continue;
+            neighbours[fill[fromIndex[i]]++] = toIndex[i];
+            neighbours[fill[toIndex[i]]++] = fromIndex[i];
+        }
+
+        // sort every list and drop duplicated edges, compacting the arrays in place
+        int write = 0;
+        for (int v = 0; v < n; v++){
+            int start = offsets[v], end = offsets[v + 1];
+            Arrays.sort(neighbours, start, end);
+            offsets[v] = write;
+            for (int p = start; p < end; p++){
+                if (p == start || neighbours[p] != neighbours[p - 1]) neighbours[write++] = neighbours[p];
+            }
+        }
+        offsets[n] = write;
+        if (write != neighbours.length) neighbours = Arrays.copyOf(neighbours, write);
+
+        return new Graph(ids, offsets, neighbours);
+    }
+
+    /**
+     * Labels the connected components of the graph in one breadth first pass
+     * @return the component of every vertex, numbered from 0 in order of their smallest vertex
+     */
+    public int[] components(){
+        int n = ids.length;
+        int[] componentOf = new int[n];
+        int[] queue = new int[n];
+        Arrays.fill(componentOf, -1);
+
+        int count = 0;
+        for (int root = 0; root < n; root++){
+            if (componentOf[root] != -1) continue;
+            int head = 0, tail = 0;
+            componentOf[root] = count;
+            queue[tail++] = root;
+            while (head < tail){
+                int v = queue[head++];
+                for (int p = offsets[v], end = offsets[v + 1]; p < end; p++){
+                    int u = neighbours[p];
+                    if (componentOf[u] == -1) {
+                        componentOf[u] = count;
+                        queue[tail++] = u;
+                    }
+                }
+            }
+            count++;
+        }
+        return componentOf;
+    }
+
+    /**
+     * Builds the subgraph of a connected component, keeping the original ids of its vertices
+     * @param members - indexes of the vertices of the component in ascending order
+     * @param localIndex - scratch array of length size(), overwritten at the members
+     * @return Graph
+     */
+    public Graph subgraph(int[] members, int[] localIndex){
+        int n = members.length;
+        for (int i = 0; i < n; i++) localIndex[members[i]] = i;
+
+        int[] subIds = new int[n];
+        int[] subOffsets = new int[n + 1];
+        for (int i = 0; i < n; i++){
+            subIds[i] = ids[members[i]];
+            subOffsets[i + 1] = subOffsets[i] + degree(members[i]);
+        }
+
+        // a neighbour of a member of a component is a member as well, so the lists only need renumbering
+        int[] subNeighbours = new int[subOffsets[n]];
+        for (int i = 0; i < n; i++){
+            int write = subOffsets[i];
+            for (int p = offsets[members[i]], end = offsets[members[i] + 1]; p < end; p++){
+                subNeighbours[write++] = localIndex[neighbours[p]];
+            }
+        }
+        return new Graph(subIds, subOffsets, subNeighbours);
+    }
+
+    /**
+     * Builds the subgraph induced by any set of vertices, keeping the original ids of its vertices
+     * Edges to vertices outside the set are dropped.
+     * @param members - indexes of the vertices of the set in ascending order
+     * @return Graph
+     */
+    public Graph induced(int[] members){
+        int n = members.length;
+        int[] localIndex = new int[ids.length];
+        Arrays.fill(localIndex, -1);
+        for (int i = 0; i < n; i++) localIndex[members[i]] = i;
+
+        int[] subIds = new int[n];
+        int[] subOffsets = new int[n + 1];
+        for (int i = 0; i < n; i++){
+            subIds[i] = ids[members[i]];
+            int inside = 0;
+            for (int p = offsets[members[i]], end = offsets[members[i] + 1]; p < end; p++){
+                if (localIndex[neighbours[p]] != -1) inside++;
+            }
+            subOffsets[i + 1] = subOffsets[i] + inside;
+        }
+
+        // members are ascending, so renumbered lists stay sorted
+        int[] subNeighbours = new int[subOffsets[n]];
+        for (int i = 0; i < n; i++){
+            int write = subOffsets[i];
+            for (int p = offsets[members[i]], end = offsets[members[i] + 1]; p < end; p++){
+                if (localIndex[neighbours[p]] != -1) subNeighbours[write++] = localIndex[neighbours[p]];
+            }
+        }
+        return new Graph(subIds, subOffsets, subNeighbours);
+    }
+
+    /**
+     * Getter functions for class variables
+     */
+
+    public int size(){
+        return ids.length;
+    }
+
+    public int arcCount(){
+        return neighbours.length;
+    }
+
+    public int getId(int v){
+        return ids[v];
+    }
+
+    public int degree(int v){
+        return offsets[v + 1] - offsets[v];
+    }
+
+    public int[] getIds(){
+        return ids;
+    }
+
+    public int[] getOffsets(){
+        return offsets;
+    }
+
+    public int[] getNeighbours(){
+        return neighbours;
+    }
+}
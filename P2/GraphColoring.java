@@ -0,0 +1,209 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * GraphColoring --- colors one graph with the engine chosen in its options and returns the result.
+ * An instance keeps no global state, so several graphs can be colored at once in one process; the graph
+ * is only read and can be shared by several instances.
+ */
+class GraphColoring{
+    // one daemon thread ends the time budgets of all instances
+    final static ScheduledExecutorService TIMER = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "coloring-budget");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final Graph graph;                  // the graph of the CSP, shared read-only
+    private final int K;                        // the number of colors
+    private final ColoringOptions options;      // the engine and its settings
+    private final List<String> details;         // statistics of the engine collected by the last solve()
+    private SearchMonitor monitor;              // the budget and counters of all solvers of the last solve()
+
+    /**
+     * Constructor function for initializing variables
+     * @param graph - the graph of the CSP
+     * @param K - the number of colors given in the CSP, replaced by the number of colors of the options if set
+     * @param options - the engine and its settings
+     */
+    GraphColoring(Graph graph, int K, ColoringOptions options){
+        this.graph = graph;
+        this.K = options.getColors() != -1 ? options.getColors() : K;
+        this.options = options;
+        this.details = new ArrayList<>();
+    }
+
+    /**
+     * Colors the graph
+     * @return ColoringResult
+     * @throws IllegalArgumentException - if no number of colors is given, e.g for a DIMACS file, except for the chromatic mode
+     * @throws Exception - if a parallel search has failed
+     */
+    public ColoringResult solve() throws Exception{
+        if (K < 0 && options.getMode() != ColoringOptions.Mode.CHROMATIC)
+            throw new IllegalArgumentException("The number of colors is not given, use --colors N");
+        details.clear();
+        long start = System.nanoTime();
+        monitor = new SearchMonitor(options.getTimeLimitMillis(), options.getNodeLimit());
+        ScheduledFuture<?> progress = options.getProgressMillis() <= 0 ? null : TIMER.scheduleAtFixedRate(
+                () -> reportProgress(start), options.getProgressMillis(), options.getProgressMillis(), TimeUnit.MILLISECONDS);
+        try {
+            return run(start);
+        }
+        finally {
+            if (progress != null) progress.cancel(false);
+        }
+    }
+
+    /**
+     * Colors the graph with the engine of the options
+     * @param start - the System.nanoTime() solve() was called at
+     * @return ColoringResult
+     * @throws Exception - if a parallel search has failed
+     */
+    private ColoringResult run(long start) throws Exception{
+        if (options.getMode() == ColoringOptions.Mode.CHROMATIC) {
+            ColoringEvents.Phase phase = ColoringEvents.begin("chromatic", graph.size(), -1);
+            ChromaticSolver chromatic = new ChromaticSolver(graph, options.getBudgetMillis(), options.getSolverOptions());
+            chromatic.setMonitor(monitor);
+            boolean exact = chromatic.solve();
+            ColoringEvents.end(phase, chromatic.getUpperBound());
+            details.add(String.format("Lower bound (greedy clique): %d", chromatic.getClique().length));
+            details.add(String.format("Upper bound (DSatur): %d", chromatic.getGreedyColors()));
+            for (ChromaticSolver.Attempt attempt : chromatic.getAttempts())
+                details.add(String.format("\tK = %d: %s in %d ms", attempt.K, attempt.status, attempt.millis));
+            if (exact) details.add(String.format("Chromatic number: %d", chromatic.getUpperBound()));
+            else details.add(String.format("Chromatic number: between %d and %d", chromatic.getLowerBound(), chromatic.getUpperBound()));
+            addSearchDetails();
+            return new ColoringResult(ColoringSolver.Status.SATISFIABLE, chromatic.getBest(), chromatic.getUpperBound(),
+                    0, graph.size(), (System.nanoTime() - start) / 1000000, details, monitor.total());
+        }
+
+        // vertices of degree below K are peeled off first and colored after the remaining K-core
+        ColoringEvents.Phase phase = ColoringEvents.begin("peel", graph.size(), K);
+        CoreReduction reduction = new CoreReduction(graph, K);
+        Graph core = reduction.getCore();
+        ColoringEvents.end(phase, core.size());
+        details.add(String.format("Peeled vertices of degree below %d: %d, left in the core: %d",
+                K, reduction.getPeeledCount(), core.size()));
+
+        int[] assigned = new int[core.size()];
+        phase = ColoringEvents.begin(options.getMode() == ColoringOptions.Mode.TABU ? "tabu" : "search", core.size(), K);
+        ColoringSolver.Status status = options.getMode() == ColoringOptions.Mode.TABU ? searchLocally(core, assigned) : search(core, assigned);
+        ColoringEvents.end(phase, status);
+        addSearchDetails();
+
+        int[] coloring = null;
+        if (status == ColoringSolver.Status.SATISFIABLE) {
+            phase = ColoringEvents.begin("restore", graph.size(), K);
+            coloring = reduction.restore(assigned);
+            ColoringEvents.end(phase, reduction.getPeeledCount());
+        }
+        return new ColoringResult(status, coloring, K, reduction.getPeeledCount(), core.size(),
+                (System.nanoTime() - start) / 1000000, details, monitor.total());
+    }
+
+    /**
+     * Adds the counters of all solvers and the reason of an early stop to the details
+     */
+    private void addSearchDetails(){
+        if (SearchStats.ENABLED) details.add("Search: " + monitor.total());
+        if (monitor.isExhausted()) details.add("Stopped early: the time or node limit is reached");
+    }
+
+    /**
+     * Prints a progress line with the counters of all solvers to the standard error
+     * @param start - the System.nanoTime() solve() was called at
+     */
+    private void reportProgress(long start){
+        double seconds = (System.nanoTime() - start) / 1e9;
+        SearchStats total = monitor.total();
+        System.err.printf("[%.1f s] %s, %.0f nodes/s%n", seconds, total, total.nodes / seconds);
+    }
+
+    /**
+     * Colors the core with a single solver per component, a portfolio of them or a split search tree
+     * @param core - the K-core of the graph
+     * @param assigned - the array the coloring of the core is copied to
+     * @return the outcome of the search
+     * @throws Exception - if a parallel search has failed
+     */
+    private ColoringSolver.Status search(Graph core, int[] assigned) throws Exception{
+        ColoringSolver.Status status;
+        int[] coloring;
+        if (options.getMode() == ColoringOptions.Mode.PARALLEL) {
+            ParallelTreeSearch search = new ParallelTreeSearch(core, K, options.getTreeThreads());
+            search.setMonitor(monitor);
+            status = search.solve();
+            coloring = search.getSolution();
+        }
+        else if (options.getMode() == ColoringOptions.Mode.PORTFOLIO) {
+            PortfolioSolver portfolio = new PortfolioSolver(core, K, options.getPortfolioSize(), options.getThreads(), options.getSolverOptions());
+            portfolio.setMonitor(monitor);
+            status = portfolio.solve();
+            coloring = portfolio.getWinner() == null ? null : portfolio.getWinner().getAssigned();
+            if (portfolio.getWinner() != null)
+                details.add(String.format("Finished first: %s", portfolio.getWinner().getOptions()));
+        }
+        else {
+            // color every connected component on its own
+            ComponentSolver components = new ComponentSolver(core, K, options.getThreads(), options.getSolverOptions());
+            components.setMonitor(monitor);
+            status = components.solve();
+            coloring = components.getAssigned();
+            details.add(String.format("The number of components: %d", components.getComponentCount()));
+        }
+        if (status == ColoringSolver.Status.SATISFIABLE) System.arraycopy(coloring, 0, assigned, 0, assigned.length);
+        return status;
+    }
+
+    /**
+     * Colors the core with tabu search and, if only a few conflicts are left when the budget runs out,
+     * with the complete search started from the best assignment for another budget
+     * @param core - the K-core of the graph
+     * @param assigned - the array the coloring of the core is copied to
+     * @return the outcome of the search
+     */
+    private ColoringSolver.Status searchLocally(Graph core, int[] assigned){
+        long budgetMillis = options.getBudgetMillis();
+        // the time limit of the whole run cuts both phases short
+        if (options.getTimeLimitMillis() > 0) budgetMillis = Math.min(budgetMillis, options.getTimeLimitMillis());
+        TabuSearch tabu = new TabuSearch(core, K, options.getSolverOptions().getSeed());
+        int conflicts = tabu.solve(0, System.nanoTime() + budgetMillis * 1000000);
+        if (conflicts < 0) return ColoringSolver.Status.UNSATISFIABLE; // no colors for the vertices of the core
+        details.add(String.format("Tabu search: %d conflicts left after %d moves", conflicts, tabu.getIterations()));
+        if (conflicts == 0) {
+            System.arraycopy(tabu.getBest(), 0, assigned, 0, assigned.length);
+            return ColoringSolver.Status.SATISFIABLE;
+        }
+        if (conflicts > options.getHandoff()) return ColoringSolver.Status.UNKNOWN;
+
+        // the complete search tries the colors of the best assignment first
+        ColoringSolver solver = new ColoringSolver(core, K, options.getSolverOptions());
+        solver.setHint(tabu.getBest());
+        solver.setMonitor(monitor);
+        AtomicBoolean stop = new AtomicBoolean(false);
+        solver.setStop(stop);
+        ScheduledFuture<?> timeout = TIMER.schedule(() -> stop.set(true), budgetMillis, TimeUnit.MILLISECONDS);
+        ColoringEvents.Phase phase = ColoringEvents.begin("handoff", core.size(), K);
+        ColoringSolver.Status status = solver.solve();
+        ColoringEvents.end(phase, status);
+        timeout.cancel(false);
+        details.add(String.format("Handed over to the complete search: %s", status));
+        if (status == ColoringSolver.Status.SATISFIABLE) System.arraycopy(solver.getAssigned(), 0, assigned, 0, assigned.length);
+        return status;
+    }
+
+    /**
+     * Getter functions for class variables
+     */
+
+    public int getK(){
+        return K;
+    }
+}
@@ -0,0 +1,126 @@
+import java.io.BufferedReader;
+import java.io.FileReader;
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * GraphDelta --- a change of a graph: edges and vertices added or removed, given with original vertex ids.
+ * It can be read from a file with one change per line
+ *     +from,to    adds an edge          -from,to    removes an edge
+ *     +id         adds a vertex         -id         removes a vertex and its edges
+ * where blank lines and lines starting with # are skipped.
+ */
+class GraphDelta{
+    private int[] addedEdges = new int[16];     // endpoints of the added edges, two entries per edge
+    private int[] removedEdges = new int[16];   // endpoints of the removed edges, two entries per edge
+    private int[] addedVertices = new int[8];   // ids of the added vertices
+    private int[] removedVertices = new int[8]; // ids of the removed vertices
+    private int addedEdgeCount = 0;             // the number of added edges
+    private int removedEdgeCount = 0;           // the number of removed edges
+    private int addedVertexCount = 0;           // the number of added vertices
+    private int removedVertexCount = 0;         // the number of removed vertices
+
+    /**
+     * Functions adding changes; removals are applied before additions
+     */
+
+    public GraphDelta addEdge(int from, int to){
+        if (2 * addedEdgeCount + 2 > addedEdges.length) addedEdges = Arrays.copyOf(addedEdges, addedEdges.length * 2);
+        addedEdges[2 * addedEdgeCount] = from;
+        addedEdges[2 * addedEdgeCount++ + 1] = to;
+        return this;
+    }
+
+    public GraphDelta removeEdge(int from, int to){
+        if (2 * removedEdgeCount + 2 > removedEdges.length) removedEdges = Arrays.copyOf(removedEdges, removedEdges.length * 2);
+        removedEdges[2 * removedEdgeCount] = from;
+        removedEdges[2 * removedEdgeCount++ + 1] = to;
+        return this;
+    }
+
+    public GraphDelta addVertex(int id){
+        if (addedVertexCount == addedVertices.length) addedVertices = Arrays.copyOf(addedVertices, addedVertexCount * 2);
+        addedVertices[addedVertexCount++] = id;
+        return this;
+    }
+
+    public GraphDelta removeVertex(int id){
+        if (removedVertexCount == removedVertices.length) removedVertices = Arrays.copyOf(removedVertices, removedVertexCount * 2);
+        removedVertices[removedVertexCount++] = id;
+        return this;
+    }
+
+    /**
+     * Reads a delta file
+     * @param fileName - the name of the file
+     * @return GraphDelta
+     * @throws IOException - if the file cannot be read or a line is malformed
+     */
+    public static GraphDelta read(String fileName) throws IOException{
+        GraphDelta delta = new GraphDelta();
+        try (BufferedReader reader = new BufferedReader(new FileReader(fileName))) {
+            String line;
+            for (int number = 1; (line = reader.readLine()) != null; number++){
+                line = line.trim();
+                if (line.isEmpty() || line.startsWith("#")) continue;
+                char sign = line.charAt(0);
+                String[] ids = line.substring(1).split(",");
+                try {
+                    if (sign != '+' && sign != '-' || ids.length > 2) throw new NumberFormatException();
+                    int a = Integer.parseInt(ids[0].trim());
+                    if (ids.length == 2) {
+                        int b = Integer.parseInt(ids[1].trim());
+                        if (sign == '+') delta.addEdge(a, b);
+                        else delta.removeEdge(a, b);
+                    }
+                    else if (sign == '+') delta.addVertex(a);
+                    else delta.removeVertex(a);
+                }
+                catch (NumberFormatException ex){
+                    throw new IOException("Malformed change at line " + number + ": " + line);
+                }
+            }
+        }
+        return delta;
+    }
+
+    /**
+     * Getter functions for class variables
+     */
+
+    public int[] getAddedEdges(){
+        return addedEdges;
+    }
+
+    public int[] getRemovedEdges(){
+        return removedEdges;
+    }
+
+    public int[] getAddedVertices(){
+        return addedVertices;
+    }
+
+    public int[] getRemovedVertices(){
+        return removedVertices;
+    }
+
+    public int getAddedEdgeCount(){
+        return addedEdgeCount;
+    }
+
+    public int getRemovedEdgeCount(){
+        return removedEdgeCount;
+    }
+
+    public int getAddedVertexCount(){
+        return addedVertexCount;
+    }
+
+    public int getRemovedVertexCount(){
+        return removedVertexCount;
+    }
+
+    public int size(){
+        return addedEdgeCount + removedEdgeCount + addedVertexCount + removedVertexCount;
+    }
+}
@@ -0,0 +1,181 @@
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32;
+
+/**
+ * GraphSnapshot --- a versioned binary image of a compiled graph, so that repeated runs skip parsing.
+ * The file is little-endian: a header of eight ints
+ *     magic, version, K, n, arcs, minimum degree, maximum degree, CRC32 of the payload
+ * followed by the payload ids[n], offsets[n+1] and neighbours[arcs]. Arrays are written and read through
+ * memory-mapped windows, so loading is a bulk copy without any parsing.
+ */
+class GraphSnapshot{
+    final static int MAGIC = 0x47505343;        // "CSPG" in little-endian byte order
+    final static int VERSION = 1;               // the format version, increased on every layout change
+    final static int HEADER_BYTES = 32;         // the size of the header
+    final static String EXTENSION = ".snap";    // the suffix added to the name of the text file
+    final static int WINDOW_INTS = 1 << 26;     // ints mapped at once, 256 MB
+
+    private final Graph graph;                  // the graph of the snapshot
+    private final int K;                        // the number of colors given in the source file
+    private final int minDegree;                // the smallest degree of a vertex
+    private final int maxDegree;                // the largest degree of a vertex
+
+    /**
+     * Constructor function for initializing variables
+     * @param graph - the graph of the snapshot
+     * @param K - the number of colors given in the source file
+     */
+    GraphSnapshot(Graph graph, int K){
+        this.graph = graph;
+        this.K = K;
+        int min = graph.size() == 0 ? 0 : Integer.MAX_VALUE, max = 0;
+        for (int v = 0; v < graph.size(); v++){
+            min = Math.min(min, graph.degree(v));
+            max = Math.max(max, graph.degree(v));
+        }
+        this.minDegree = min;
+        this.maxDegree = max;
+    }
+
+    private GraphSnapshot(Graph graph, int K, int minDegree, int maxDegree){
+        this.graph = graph;
+        this.K = K;
+        this.minDegree = minDegree;
+        this.maxDegree = maxDegree;
+    }
+
+    /**
+     * Gives the name of the snapshot belonging to a text file
+     * @param fileName - the name of the text file
+     * @return String
+     */
+    public static String pathFor(String fileName){
+        return fileName + EXTENSION;
+    }
+
+    /**
+     * Checks if a snapshot of the text file exists that is not older than the text file
+     * @param fileName - the name of the text file
+     * @return boolean
+     */
+    public static boolean isFresh(String fileName){
+        File snapshot = new File(pathFor(fileName));
+        File text = new File(fileName);
+        return snapshot.isFile() && (!text.exists() || snapshot.lastModified() >= text.lastModified());
+    }
+
+    /**
+     * Writes the snapshot
+     * @param fileName - the name of the snapshot file
+     * @throws IOException - if the file cannot be written
+     */
+    public void write(String fileName) throws IOException{
+        int n = graph.size();
+        int arcs = graph.arcCount();
+        try (FileChannel channel = FileChannel.open(Paths.get(fileName), StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            CRC32 crc = new CRC32();
+            long position = HEADER_BYTES;
+            position = writeInts(channel, position, graph.getIds(), n, crc);
+            position = writeInts(channel, position, graph.getOffsets(), n + 1, crc);
+            writeInts(channel, position, graph.getNeighbours(), arcs, crc);
+
+            // the header goes last, so an interrupted write leaves no valid magic behind
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            header.putInt(MAGIC).putInt(VERSION).putInt(K).putInt(n).putInt(arcs)
+                    .putInt(minDegree).putInt(maxDegree).putInt((int) crc.getValue());
+            header.flip();
+            while (header.hasRemaining()) channel.write(header, header.position());
+        }
+    }
+
+    /**
+     * Writes an int array in mapped windows, updating the checksum
+     * @return the position after the array
+     */
+    private static long writeInts(FileChannel channel, long position, int[] values, int length, CRC32 crc) throws IOException{
+        for (int start = 0; start < length; start += WINDOW_INTS){
+            int count = Math.min(WINDOW_INTS, length - start);
+            ByteBuffer window = channel.map(FileChannel.MapMode.READ_WRITE, position, 4L * count).order(ByteOrder.LITTLE_ENDIAN);
+            window.asIntBuffer().put(values, start, count);
+            crc.update(window);
+            position += 4L * count;
+        }
+        return position;
+    }
+
+    /**
+     * Reads a snapshot, verifying its version, sizes and checksum
+     * @param fileName - the name of the snapshot file
+     * @return GraphSnapshot
+     * @throws IOException - if the file cannot be read or is not a valid snapshot of this version
+     */
+    public static GraphSnapshot read(String fileName) throws IOException{
+        try (FileChannel channel = FileChannel.open(Paths.get(fileName), StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < HEADER_BYTES) throw new IOException("Not a graph snapshot: " + fileName);
+            ByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            if (header.getInt(0) != MAGIC) throw new IOException("Not a graph snapshot: " + fileName);
+            if (header.getInt(4) != VERSION) throw new IOException("Unsupported snapshot version " + header.getInt(4));
+            int K = header.getInt(8);
+            int n = header.getInt(12);
+            int arcs = header.getInt(16);
+            int checksum = header.getInt(28);
+            if (n < 0 || arcs < 0 || size != HEADER_BYTES + 4L * ((long) n + n + 1 + arcs))
+                throw new IOException("Truncated graph snapshot: " + fileName);
+
+            CRC32 crc = new CRC32();
+            int[] ids = new int[n];
+            int[] offsets = new int[n + 1];
+            int[] neighbours = new int[arcs];
+            long position = HEADER_BYTES;
+            position = readInts(channel, position, ids, crc);
+            position = readInts(channel, position, offsets, crc);
+            readInts(channel, position, neighbours, crc);
+            if ((int) crc.getValue() != checksum) throw new IOException("Checksum mismatch in graph snapshot: " + fileName);
+
+            return new GraphSnapshot(new Graph(ids, offsets, neighbours), K, header.getInt(20), header.getInt(24));
+        }
+    }
+
+    /**
+     * Reads an int array from mapped windows, updating the checksum
+     * @return the position after the array
+     */
+    private static long readInts(FileChannel channel, long position, int[] values, CRC32 crc) throws IOException{
+        for (int start = 0; start < values.length; start += WINDOW_INTS){
+            int count = Math.min(WINDOW_INTS, values.length - start);
+            ByteBuffer window = channel.map(FileChannel.MapMode.READ_ONLY, position, 4L * count).order(ByteOrder.LITTLE_ENDIAN);
+            window.asIntBuffer().get(values, start, count);
+            crc.update(window);
+            position += 4L * count;
+        }
+        return position;
+    }
+
+    /**
+     * Getter functions for class variables
+     */
+
+    public Graph getGraph(){
+        return graph;
+    }
+
+    public int getK(){
+        return K;
+    }
+
+    public int getMinDegree(){
+        return minDegree;
+    }
+
+    public int getMaxDegree(){
+        return maxDegree;
+    }
+}
@@ -0,0 +1,245 @@
+import java.util.Arrays;
+
+/**
+ * NogoodStore --- a bounded store of learned nogoods, i.e sets of (vertex, color) assignments known to fail.
+ * Every nogood watches its first two literals (slots 2*id and 2*id+1), which are kept not true where possible,
+ * so only nogoods watching a literal that has just become true are visited; a nogood with a single literal
+ * left not true forbids that literal.
+ * When the store is full, the older half of the nogoods longer than two literals is dropped, except for
+ * nogoods that are the reason of a color currently missing from a domain.
+ */
+class NogoodStore{
+    final static int CAPACITY = 4096;           // the maximum number of stored nogoods
+    final static int MAX_LENGTH = 24;           // the maximum number of literals of a stored nogood
+    final static int INITIAL = 16;              // the number of nogoods room is made for at first, doubled up to CAPACITY
+
+    private final int K;                        // the number of colors given in the CSP
+    private final int[] assigned;               // colors assigned to the vertices by the solver
+    private final int[] levelOf;                // the level every vertex is assigned at by the solver
+    private final Domains domains;              // domains of all vertices
+    private final Conflicts conflicts;          // reasons of removed colors, some referring to nogoods
+    private int[] vertexOf;                     // vertices of the literals of all nogoods, MAX_LENGTH per nogood
+    private int[] colorOf;                      // colors of the literals of all nogoods, MAX_LENGTH per nogood
+    private int[] length;                       // the number of literals of every nogood, its length is the room for nogoods
+    private int[] watchNext;                    // the next slot watching the same literal, -1 at the end
+    private final int[] watchHead;              // the first slot watching every literal (v*K+c), -1 if none
+    private int count = 0;                      // the number of stored nogoods
+
+    // ----------- Literals forbidden by the last propagate() call -----------
+    private int[] unitVertex;                   // vertices of the forbidden literals, one per nogood at most
+    private int[] unitColor;                    // colors of the forbidden literals
+    private int[] unitNogood;                   // the nogood forbidding every forbidden literal
+    private int unitCount = 0;                  // the number of forbidden literals
+
+    /**
+     * Constructor function for initializing variables
+     * @param n - the number of vertices
+     * @param K - the number of colors given in the CSP
+     * @param assigned - colors assigned to the vertices by the solver
+     * @param levelOf - the level every vertex is assigned at by the solver
+     * @param domains - domains of all vertices
+     * @param conflicts - reasons of removed colors
+     */
+    NogoodStore(int n, int K, int[] assigned, int[] levelOf, Domains domains, Conflicts conflicts){
+        this.K = K;
+        this.assigned = assigned;
+        this.levelOf = levelOf;
+        this.domains = domains;
+        this.conflicts = conflicts;
+        this.vertexOf = new int[INITIAL * MAX_LENGTH];
+        this.colorOf = new int[INITIAL * MAX_LENGTH];
+        this.length = new int[INITIAL];
+        this.watchNext = new int[INITIAL * 2];
+        this.watchHead = new int[n * K];
+        this.unitVertex = new int[INITIAL];
+        this.unitColor = new int[INITIAL];
+        this.unitNogood = new int[INITIAL];
+        Arrays.fill(watchHead, -1);
+    }
+
+    /**
+     * Doubles the room for nogoods, up to CAPACITY; most searches learn few nogoods, so the room is not taken up front
+     */
+    private void grow(){
+        int room = Math.min(CAPACITY, length.length * 2);
+        vertexOf = Arrays.copyOf(vertexOf, room * MAX_LENGTH);
+        colorOf = Arrays.copyOf(colorOf, room * MAX_LENGTH);
+        length = Arrays.copyOf(length, room);
+        watchNext = Arrays.copyOf(watchNext, room * 2);
+        unitVertex = Arrays.copyOf(unitVertex, room);
+        unitColor = Arrays.copyOf(unitColor, room);
+        unitNogood = Arrays.copyOf(unitNogood, room);
+    }
+
+    /**
+     * Makes the slot watch the literal at its position (0 or 1) in the nogood
+     * @param slot - the slot
+     */
+    private void watch(int slot){
+        int position = (slot >> 1) * MAX_LENGTH + (slot & 1);
+        int literal = vertexOf[position] * K + colorOf[position];
+        watchNext[slot] = watchHead[literal];
+        watchHead[literal] = slot;
+    }
+
+    /**
+     * Swaps two literals of the stored nogoods
+     */
+    private void swap(int i, int j){
+        int vertex = vertexOf[i]; vertexOf[i] = vertexOf[j]; vertexOf[j] = vertex;
+        int color = colorOf[i]; colorOf[i] = colorOf[j]; colorOf[j] = color;
+    }
+
+    /**
+     * Stores a nogood; the first two literals are watched, so they should be the deepest ones
+     * @param vertices - indexes of the vertices of the literals
+     * @param colors - the colors of the literals
+     * @param size - the number of literals
+     */
+    public void add(int[] vertices, int[] colors, int size){
+        if (size == 0 || size > MAX_LENGTH) return;
+        if (count == CAPACITY) cleanup();
+        else if (count == length.length) grow();
+
+        int id = count++;
+        int base = id * MAX_LENGTH;
+        System.arraycopy(vertices, 0, vertexOf, base, size);
+        System.arraycopy(colors, 0, colorOf, base, size);
+        length[id] = size;
+        watch(2 * id);
+        if (size > 1) watch(2 * id + 1);
+    }
+
+    /**
+     * Finds the literal of the nogood whose removal it is the reason of
+     * @param id - id of the nogood
+     * @return the position of the literal, or -1 if the nogood explains no removal
+     */
+    private int lockedLiteral(int id){
+        for (int i = id * MAX_LENGTH, end = i + length[id]; i < end; i++){
+            int v = vertexOf[i], color = colorOf[i];
+            if (!domains.contains(v, color) && conflicts.getReason(v, color) == Conflicts.nogood(id)) return i;
+        }
+        return -1;
+    }
+
+    /**
+     * Drops the older half of the long nogoods that explain no removal and rebuilds the watch lists
+     */
+    private void cleanup(){
+        int write = 0;
+        for (int id = 0; id < count; id++){
+            int locked = lockedLiteral(id);
+            if (length[id] > 2 && id < count / 2 && locked == -1) continue;
+            if (write != id) {
+                System.arraycopy(vertexOf, id * MAX_LENGTH, vertexOf, write * MAX_LENGTH, length[id]);
+                System.arraycopy(colorOf, id * MAX_LENGTH, colorOf, write * MAX_LENGTH, length[id]);
+                length[write] = length[id];
+                if (locked != -1) conflicts.setReason(vertexOf[locked], colorOf[locked], Conflicts.nogood(write)); // follow the move
+            }
+            write++;
+        }
+        count = write;
+
+        // watch two literals that are not true where possible
+        Arrays.fill(watchHead, -1);
+        for (int id = 0; id < count; id++){
+            int base = id * MAX_LENGTH;
+            for (int i = 0, w = 0; i < length[id] && w < 2; i++){
+                if (assigned[vertexOf[base + i]] == colorOf[base + i]) continue;
+                swap(base + w, base + i);
+                w++;
+            }
+            watch(2 * id);
+            if (length[id] > 1) watch(2 * id + 1);
+        }
+    }
+
+    /**
+     * Visits the nogoods watching the literal that has just become true
+     * Forbidden literals are collected and can be read with getUnitCount(), getUnitVertex(), getUnitColor() and getUnitNogood().
+     * @param v - index of the assigned vertex
+     * @param color - the assigned color
+     * @return the id of a nogood whose literals are all true, or -1 if there is none
+     */
+    public int propagate(int v, int color){
+        unitCount = 0;
+        int literal = v * K + color;
+        int prev = -1;
+        int slot = watchHead[literal];
+        while (slot != -1){
+            int nextSlot = watchNext[slot];
+            int id = slot >> 1;
+            int base = id * MAX_LENGTH;
+            int own = base + (slot & 1);
+            int other = length[id] > 1 ? base + ((slot & 1) ^ 1) : -1;
+
+            // a nogood with a literal that cannot become true any more cannot be violated
+            if (other != -1 && assigned[vertexOf[other]] != colorOf[other] && !domains.contains(vertexOf[other], colorOf[other])) {
+                prev = slot;
+                slot = nextSlot;
+                continue;
+            }
+
+            // look for a literal that is not true to watch instead
+            int replacement = -1;
+            for (int i = base + 2, end = base + length[id]; i < end; i++){
+                if (assigned[vertexOf[i]] != colorOf[i]) {replacement = i; break;}
+            }
+            if (replacement != -1) {
+                if (prev == -1) watchHead[literal] = nextSlot;
+                else watchNext[prev] = nextSlot;
+                swap(own, replacement);
+                watch(slot);
+                slot = nextSlot;
+                continue;
+            }
+
+            if (other == -1 || assigned[vertexOf[other]] == colorOf[other]) return id; // every literal is true
+            if (unitCount < unitVertex.length) {
+                // every literal but the other watch is true, so the other one has to be false
+                unitVertex[unitCount] = vertexOf[other];
+                unitColor[unitCount] = colorOf[other];
+                unitNogood[unitCount++] = id;
+            }
+            prev = slot;
+            slot = nextSlot;
+        }
+        return -1;
+    }
+
+    /**
+     * Adds the levels of the true literals of the nogood to the scratch set of the conflicts
+     * @param id - id of the nogood
+     * @param conflicts - the conflicts to add to
+     */
+    public void explain(int id, Conflicts conflicts){
+        for (int i = id * MAX_LENGTH, end = i + length[id]; i < end; i++){
+            if (assigned[vertexOf[i]] == colorOf[i]) conflicts.addLevel(levelOf[vertexOf[i]]);
+        }
+    }
+
+    /**
+     * Getter functions for the results of propagate()
+     */
+
+    public int getUnitCount(){
+        return unitCount;
+    }
+
+    public int getUnitVertex(int i){
+        return unitVertex[i];
+    }
+
+    public int getUnitColor(int i){
+        return unitColor[i];
+    }
+
+    public int getUnitNogood(int i){
+        return unitNogood[i];
+    }
+
+    public int size(){
+        return count;
+    }
+}
@@ -0,0 +1,137 @@
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * ParallelTreeSearch --- splits the search tree into subtrees, each given as a prefix of assignments,
+ * and searches them on a work-stealing fork-join pool. A busy search gives its shallowest open subtrees
+ * away whenever the pool runs short of queued tasks; the graph is not colorable once every subtree is closed.
+ */
+class ParallelTreeSearch{
+    private final Graph graph;                          // the graph of the CSP, shared read-only
+    private final int K;                                // the number of colors given in the CSP
+    private final int parallelism;                      // the number of worker threads
+    private final ThreadLocal<ColoringSolver> solvers;  // one reusable solver per worker thread
+    private final AtomicBoolean stop;                   // set once a coloring has been found or the budget has run out
+    private final AtomicInteger pending;                // the number of created but not finished subtrees
+    private final AtomicReference<int[]> solution;      // the found coloring, null if none
+    private final AtomicBoolean incomplete;             // set if a subtree has been left unsearched for the budget
+    private SearchMonitor monitor;                      // the budget and counters of the run, may be null
+    private final CountDownLatch done;                  // released when the last subtree is finished
+    private volatile Throwable failure;                 // the first exception thrown by a subtree
+
+    /**
+     * Constructor function for initializing variables
+     * @param graph - the graph of the CSP
+     * @param K - the number of colors given in the CSP
+     * @param parallelism - the number of worker threads
+     */
+    ParallelTreeSearch(Graph graph, int K, int parallelism){
+        this.graph = graph;
+        this.K = K;
+        this.parallelism = Math.max(1, parallelism);
+        this.solvers = ThreadLocal.withInitial(() -> {
+            ColoringSolver solver = new ColoringSolver(graph, K, new SolverOptions());
+            solver.setMonitor(monitor);
+            return solver;
+        });
+        this.stop = new AtomicBoolean(false);
+        this.pending = new AtomicInteger(0);
+        this.solution = new AtomicReference<>();
+        this.incomplete = new AtomicBoolean(false);
+        this.done = new CountDownLatch(1);
+    }
+
+    /**
+     * SubtreeTask --- searches the subtree below a prefix of assignments
+     */
+    private class SubtreeTask extends RecursiveAction implements ColoringSolver.Donor{
+        private static final long serialVersionUID = 1L;
+        private final int[] vertices;   // indexes of the vertices of the prefix
+        private final int[] colors;     // the colors of the vertices of the prefix
+
+        SubtreeTask(int[] vertices, int[] colors){
+            this.vertices = vertices;
+            this.colors = colors;
+            pending.incrementAndGet();
+        }
+
+        @Override
+        protected void compute(){
+            try {
+                if (stop.get()) return;
+                ColoringSolver solver = solvers.get();
+                try {
+                    if (!solver.applyPrefix(vertices, colors, vertices.length)) return; // an empty subtree
+                    solver.setStop(stop);
+                    solver.setDonor(this);
+                    ColoringSolver.Status status = solver.solve();
+                    if (status == ColoringSolver.Status.SATISFIABLE && solution.compareAndSet(null, solver.getAssigned().clone()))
+                        stop.set(true);
+                    else if (status == ColoringSolver.Status.UNKNOWN) {
+                        incomplete.set(true);
+                        // the budget of the run is spent: every worker stops at once instead of at its next report
+                        if (monitor != null && monitor.isExhausted()) stop.set(true);
+                    }
+                }
+                finally {
+                    solver.setDonor(null);
+                    solver.reset();
+                }
+            }
+            catch (Throwable ex){
+                failure = ex;
+                stop.set(true);
+            }
+            finally {
+                if (pending.decrementAndGet() == 0) done.countDown();
+            }
+        }
+
+        @Override
+        public boolean isHungry(){
+            return ForkJoinTask.getSurplusQueuedTaskCount() <= 0;
+        }
+
+        @Override
+        public void donate(int[] vertices, int[] colors){
+            new SubtreeTask(vertices, colors).fork(); // idle workers steal it from this worker's queue
+        }
+    }
+
+    /**
+     * Searches all subtrees until a coloring is found or every subtree is closed
+     * @return SATISFIABLE, UNSATISFIABLE, or UNKNOWN if the budget of the monitor has run out
+     * @throws InterruptedException - if the waiting thread is interrupted
+     */
+    public ColoringSolver.Status solve() throws InterruptedException{
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            pool.execute(new SubtreeTask(new int[0], new int[0]));
+            done.await();
+        }
+        finally {
+            pool.shutdownNow();
+        }
+
+        if (failure != null) throw new IllegalStateException("Subtree search failed", failure);
+        if (solution.get() != null) return ColoringSolver.Status.SATISFIABLE;
+        return incomplete.get() ? ColoringSolver.Status.UNKNOWN : ColoringSolver.Status.UNSATISFIABLE;
+    }
+
+    /**
+     * Getter and setter functions for class variables
+     */
+
+    public int[] getSolution(){
+        return solution.get();
+    }
+
+    public void setMonitor(SearchMonitor monitor){
+        this.monitor = monitor;
+    }
+}
@@ -0,0 +1,100 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * PortfolioSolver --- runs independent ColoringSolver instances with different heuristic settings
+ * on a thread pool; the first one to find a coloring or to prove that none exists cancels the rest.
+ */
+class PortfolioSolver{
+    private final Graph graph;                  // the graph of the CSP, shared read-only by all instances
+    private final int K;                        // the number of colors given in the CSP
+    private final int size;                     // the number of solver instances in the portfolio
+    private final int threads;                  // the number of threads running them
+    private final SolverOptions options;        // the settings every instance varies the orderings and seed of
+    private ColoringSolver winner;              // the instance that finished first, null before solve()
+    private SearchMonitor monitor;              // the budget and counters of the run, may be null
+
+    /**
+     * Constructor function for initializing variables
+     * @param graph - the graph of the CSP
+     * @param K - the number of colors given in the CSP
+     * @param size - the number of solver instances
+     * @param threads - the number of threads running them
+     * @param options - the settings every instance varies the orderings and seed of
+     */
+    PortfolioSolver(Graph graph, int K, int size, int threads, SolverOptions options){
+        this.graph = graph;
+        this.K = K;
+        this.size = size;
+        this.threads = Math.max(1, Math.min(size, threads));
+        this.options = options;
+    }
+
+    /**
+     * Returns the heuristic settings of the i-th instance: the given settings with the vertex and value orderings
+     * and the seed varied, so the restart schedule and the other options given apply to every instance.
+     * The first one is the default sequential ordering.
+     * @param base - the given settings
+     * @param i - index of the instance
+     * @return SolverOptions
+     */
+    public static SolverOptions variant(SolverOptions base, int i){
+        SolverOptions.VertexOrder[] vertexOrders = SolverOptions.VertexOrder.values();
+        SolverOptions.ValueOrder[] valueOrders = SolverOptions.ValueOrder.values();
+        return base.copy()
+                .setVertexOrder(vertexOrders[i % vertexOrders.length])
+                .setValueOrder(valueOrders[(i / vertexOrders.length) % valueOrders.length])
+                .setSeed(base.getSeed() + i);
+    }
+
+    /**
+     * Runs all instances until the first one finishes
+     * @return the status of the first finished instance
+     * @throws InterruptedException - if the waiting thread is interrupted
+     * @throws ExecutionException - if an instance has failed with an exception
+     */
+    public ColoringSolver.Status solve() throws InterruptedException, ExecutionException{
+        AtomicBoolean stop = new AtomicBoolean(false);               // set by the first finished instance
+        AtomicReference<ColoringSolver> first = new AtomicReference<>();
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        List<Future<?>> futures = new ArrayList<>();
+
+        try {
+            for (int i = 0; i < size; i++){
+                SolverOptions instanceOptions = variant(options, i);
+                futures.add(pool.submit(() -> {
+                    if (stop.get()) return; // do not even build the state of a late instance
+                    ColoringSolver solver = new ColoringSolver(graph, K, instanceOptions);
+                    solver.setStop(stop);
+                    solver.setMonitor(monitor);
+                    if (solver.solve() != ColoringSolver.Status.UNKNOWN && first.compareAndSet(null, solver))
+                        stop.set(true);
+                }));
+            }
+            for (Future<?> future : futures) future.get();
+        }
+        finally {
+            stop.set(true);
+            pool.shutdownNow();
+        }
+
+        winner = first.get();
+        if (winner == null) return ColoringSolver.Status.UNKNOWN;
+        return winner.getStatus();
+    }
+
+    /**
+     * Getter and setter functions for class variables
+     */
+
+    public ColoringSolver getWinner(){
+        return winner;
+    }
+
+    public void setMonitor(SearchMonitor monitor){
+        this.monitor = monitor;
+    }
+}
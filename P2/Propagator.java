@@ -0,0 +1,127 @@
+/**
+ * Propagator --- an incremental AC-3 engine whose worklist only holds arcs touching changed vertices.
+ * An arc is identified by its position p in the CSR adjacency list of y and means "revise neighbours[p] against y".
+ */
+class Propagator{
+    private final int[] offsets;        // CSR offsets of the graph
+    private final int[] neighbours;     // CSR adjacency lists of the graph
+    private final Domains domains;      // domains of all vertices
+    private final Trail trail;          // storage for colors removed from domains, for undoing
+    private final VertexSelector selector; // buckets that have to follow domain sizes
+    private final Conflicts conflicts;  // storage for reasons of removed colors
+    private final SearchStats stats;    // counters of the solver, revisions are counted here
+    private final int[] queue;          // ring buffer of queued (arc position, y) pairs
+    private final long[] queued;        // membership bitmap over arc positions, to avoid duplicate arcs
+    private int head = 0;               // the position of the next pair to dequeue
+    private int count = 0;              // the number of queued arcs
+    private int wipedOut = -1;          // the vertex whose domain the last AC3() call has wiped out
+
+    /**
+     * Constructor function for initializing variables
+     * @param graph - the graph of the CSP
+     * @param domains - domains of all vertices
+     * @param trail - the trail removed colors are recorded on
+     * @param selector - the vertex selector notified about revised domains
+     * @param conflicts - the storage reasons of removed colors are recorded in
+     * @param stats - counters of the solver
+     */
+    Propagator(Graph graph, Domains domains, Trail trail, VertexSelector selector, Conflicts conflicts, SearchStats stats){
+        this.offsets = graph.getOffsets();
+        this.neighbours = graph.getNeighbours();
+        this.domains = domains;
+        this.trail = trail;
+        this.selector = selector;
+        this.conflicts = conflicts;
+        this.stats = stats;
+        this.queue = new int[Math.max(2, graph.arcCount() * 2)];
+        this.queued = new long[(graph.arcCount() + 63) >>> 6];
+    }
+
+    /**
+     * Enqueues the arcs pointing at the vertex whose domain has just changed
+     * Only a singleton domain can make its neighbours lose a value, so other domains enqueue nothing.
+     * @param y - index of the changed vertex
+     */
+    public void touch(int y){
+        if (domains.size(y) != 1) return;
+        for (int p = offsets[y], end = offsets[y + 1]; p < end; p++){
+            long bit = 1L << p;
+            if ((queued[p >>> 6] & bit) != 0) continue; // already waiting in the worklist
+            queued[p >>> 6] |= bit;
+            int tail = (head + 2 * count) % queue.length;
+            queue[tail] = p;
+            queue[tail + 1] = y;
+            count++;
+        }
+    }
+
+    /**
+     * Checks arc consistency between two vertices
+     * @param x - index of the first vertex
+     * @param y - index of the second vertex
+     * @return true if the domain of x has been revised
+     */
+    public boolean AC(int x, int y){
+        boolean removed = false;
+        // for every value of x, there should exist allowable value of y in the arc
+        if (domains.size(y) == 1) {
+            int yElem = domains.next(y, 0);
+            if (domains.remove(x, yElem)) {
+                trail.push(x, yElem);
+                conflicts.setReason(x, yElem, Conflicts.via(y));
+                selector.update(x);
+                removed = true;
+            }
+        }
+
+        return removed;
+    }
+
+    /**
+     * Checks arc consistency of the queued arcs, re-enqueuing arcs of every revised vertex
+     * @return false if a domain has been wiped out
+     */
+    public boolean AC3(){
+        while (count != 0){
+            int p = queue[head];
+            int y = queue[head + 1];
+            head = (head + 2) % queue.length;
+            count--;
+            queued[p >>> 6] &= ~(1L << p);
+
+            int x = neighbours[p];
+            if (SearchStats.ENABLED) stats.revisions++;
+            if (AC(x, y)){
+                if (domains.size(x) == 0) {
+                    wipedOut = x;
+                    clear();
+                    return false;
+                }
+                touch(x); // x may have become a singleton itself
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Getter functions for class variables
+     */
+
+    public int getWipedOut(){
+        return wipedOut;
+    }
+
+    /**
+     * Empties the worklist after a failure
+     */
+    public void clear(){
+        while (count != 0){
+            int p = queue[head];
+            queued[p >>> 6] &= ~(1L << p);
+            head = (head + 2) % queue.length;
+            count--;
+        }
+        head = 0;
+    }
+}
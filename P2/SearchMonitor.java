@@ -0,0 +1,69 @@
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * SearchMonitor --- watches all solvers of one run: it collects their counters and enforces a wall-clock
+ * and a node budget shared by them; a node is a color assigned to a vertex. Solvers report their nodes in
+ * batches of CHECK_INTERVAL and the rest when they finish, so the budget costs one atomic addition per batch
+ * and may be overrun by a batch per running solver.
+ */
+class SearchMonitor{
+    final static int CHECK_INTERVAL = 1024;     // nodes between reports of a solver (power of 2)
+
+    private final long deadline;                // the System.nanoTime() the budget ends at, 0 for none
+    private final long nodeLimit;               // the largest number of nodes of all solvers, 0 for none
+    private final AtomicLong spent;             // the nodes reported so far
+    private final Queue<SearchStats> stats;     // counters of every registered solver, one per component or instance
+    private volatile boolean exhausted = false; // set once the budget has run out
+
+    /**
+     * Constructor function for initializing variables; the clock starts here
+     * @param timeLimitMillis - the wall-clock budget, 0 for none
+     * @param nodeLimit - the budget of nodes of all solvers together, 0 for none
+     */
+    SearchMonitor(long timeLimitMillis, long nodeLimit){
+        this.deadline = timeLimitMillis > 0 ? System.nanoTime() + timeLimitMillis * 1000000 : 0;
+        this.nodeLimit = nodeLimit;
+        this.spent = new AtomicLong();
+        this.stats = new ConcurrentLinkedQueue<>(); // appending is O(1), only total() iterates
+    }
+
+    /**
+     * Registers the counters of a solver
+     * @param solverStats - the counters
+     */
+    public void register(SearchStats solverStats){
+        stats.add(solverStats);
+    }
+
+    /**
+     * Reports nodes of a solver and checks the budget
+     * @param nodes - the number of nodes since the last report, 0 to only check the budget
+     * @return true if the budget has run out and the solver has to stop
+     */
+    public boolean spend(long nodes){
+        if (exhausted) return true;
+        long total = spent.addAndGet(nodes);
+        if ((nodeLimit > 0 && total >= nodeLimit) || (deadline != 0 && System.nanoTime() - deadline >= 0)) exhausted = true;
+        return exhausted;
+    }
+
+    /**
+     * Sums the counters of all registered solvers
+     * @return SearchStats
+     */
+    public SearchStats total(){
+        SearchStats total = new SearchStats();
+        for (SearchStats solverStats : stats) total.add(solverStats);
+        return total;
+    }
+
+    /**
+     * Getter functions for class variables
+     */
+
+    public boolean isExhausted(){
+        return exhausted;
+    }
+}
@@ -0,0 +1,37 @@
+/**
+ * SearchStats --- counters of one ColoringSolver, written only by the thread running it.
+ * Other threads read them without locking for progress lines, so a read may be slightly stale.
+ * Running with -Dcoloring.instrument=false turns all counting off; ENABLED is then a constant false
+ * and the JIT removes the counting code altogether.
+ */
+class SearchStats{
+    final static boolean ENABLED = Boolean.parseBoolean(System.getProperty("coloring.instrument", "true"));
+
+    long nodes = 0;                             // the number of colors assigned to a vertex
+    long backtracks = 0;                        // the number of exhausted frames left by a backjump
+    long revisions = 0;                         // the number of arcs revised by AC-3
+    long wipeouts = 0;                          // the number of domains emptied by forward checking or AC-3
+    long restarts = 0;                          // the number of times the search started over
+    int maxDepth = 0;                           // the deepest level reached
+    long propagationNanos = 0;                  // the time spent propagating assignments
+
+    /**
+     * Adds the counters of another solver to these
+     * @param other - the counters of the other solver
+     */
+    public void add(SearchStats other){
+        nodes += other.nodes;
+        backtracks += other.backtracks;
+        revisions += other.revisions;
+        wipeouts += other.wipeouts;
+        restarts += other.restarts;
+        maxDepth = Math.max(maxDepth, other.maxDepth);
+        propagationNanos += other.propagationNanos;
+    }
+
+    @Override
+    public String toString(){
+        return String.format("nodes %d, backtracks %d, revisions %d, wipeouts %d, restarts %d, max depth %d, propagation %d ms",
+                nodes, backtracks, revisions, wipeouts, restarts, maxDepth, propagationNanos / 1000000);
+    }
+}
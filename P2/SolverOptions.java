@@ -0,0 +1,114 @@
+/**
+ * SolverOptions --- heuristic settings of a single ColoringSolver instance.
+ */
+class SolverOptions{
+    /**
+     * VertexOrder --- how the next vertex is chosen among those with the minimum remaining values
+     */
+    enum VertexOrder { DSATUR, DEGREE, RANDOM }
+
+    /**
+     * ValueOrder --- how the candidate colors of a vertex are ordered
+     */
+    enum ValueOrder { LEAST_CONSTRAINING, ASCENDING, RANDOM }
+
+    /**
+     * Restarts --- the schedule of the number of failures after which the search starts over
+     */
+    enum Restarts { NONE, LUBY, GEOMETRIC }
+
+    private VertexOrder vertexOrder = VertexOrder.DSATUR;           // tie-breaking of the vertex selection
+    private ValueOrder valueOrder = ValueOrder.LEAST_CONSTRAINING;  // ordering of the candidate colors
+    private long seed = 0;                                          // seed of the random tie-breaking
+    private boolean symmetryBreaking = true;                        // whether only one unused color is tried per node
+    private boolean nogoodLearning = true;                          // whether conflict sets are stored as nogoods
+    private Restarts restarts = Restarts.NONE;                      // the restart schedule, randomizes ties if not NONE
+    private int restartBase = 128;                                  // the number of failures of the first run
+
+    /**
+     * Getter and setter functions for class variables
+     */
+
+    public VertexOrder getVertexOrder(){
+        return vertexOrder;
+    }
+
+    public SolverOptions setVertexOrder(VertexOrder vertexOrder){
+        this.vertexOrder = vertexOrder;
+        return this;
+    }
+
+    public ValueOrder getValueOrder(){
+        return valueOrder;
+    }
+
+    public SolverOptions setValueOrder(ValueOrder valueOrder){
+        this.valueOrder = valueOrder;
+        return this;
+    }
+
+    public long getSeed(){
+        return seed;
+    }
+
+    public SolverOptions setSeed(long seed){
+        this.seed = seed;
+        return this;
+    }
+
+    public boolean isSymmetryBreaking(){
+        return symmetryBreaking;
+    }
+
+    public SolverOptions setSymmetryBreaking(boolean symmetryBreaking){
+        this.symmetryBreaking = symmetryBreaking;
+        return this;
+    }
+
+    public boolean isNogoodLearning(){
+        return nogoodLearning;
+    }
+
+    public SolverOptions setNogoodLearning(boolean nogoodLearning){
+        this.nogoodLearning = nogoodLearning;
+        return this;
+    }
+
+    public Restarts getRestarts(){
+        return restarts;
+    }
+
+    public SolverOptions setRestarts(Restarts restarts){
+        this.restarts = restarts;
+        return this;
+    }
+
+    public int getRestartBase(){
+        return restartBase;
+    }
+
+    public SolverOptions setRestartBase(int restartBase){
+        this.restartBase = Math.max(1, restartBase);
+        return this;
+    }
+
+    /**
+     * Copies the settings, e.g. to vary some of them per instance
+     * @return SolverOptions
+     */
+    public SolverOptions copy(){
+        return new SolverOptions()
+                .setVertexOrder(vertexOrder)
+                .setValueOrder(valueOrder)
+                .setSeed(seed)
+                .setSymmetryBreaking(symmetryBreaking)
+                .setNogoodLearning(nogoodLearning)
+                .setRestarts(restarts)
+                .setRestartBase(restartBase);
+    }
+
+    @Override
+    public String toString(){
+        return vertexOrder + "/" + valueOrder + (restarts == Restarts.NONE ? "" : "/" + restarts) + "/seed=" + seed;
+    }
+}
@@ -0,0 +1,204 @@
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ * TabuSearch --- a TabuCol local search for a K-coloring. Every vertex always has a color; a move recolors
+ * one conflicting vertex, and the color it leaves is tabu for it for a while. The conflict table
+ * gamma[v*K+c], the number of neighbours of v colored c, is updated on every move, so a move is scored in O(1)
+ * as gamma[v*K+new] - gamma[v*K+old]. A tabu move is still allowed if it leads to fewer conflicts than
+ * the best assignment so far (aspiration).
+ */
+class TabuSearch{
+    final static int TABU_BASE = 10;            // the random part of the tabu tenure is drawn from 0..TABU_BASE-1
+    final static double TABU_FACTOR = 0.6;      // the tenure grows by this factor times the number of conflicting vertices
+    final static int CHECK_INTERVAL = 1024;     // iterations between checks of the time budget (power of 2)
+    final static int SAMPLE = 64;               // the number of conflicting vertices scored per move when there are more
+
+    private final Graph graph;                  // the graph of the CSP, shared read-only
+    private final int K;                        // the number of colors given in the CSP
+    private final int[] offsets;                // CSR offsets of the graph
+    private final int[] neighbours;             // CSR adjacency lists of the graph
+    private final SplittableRandom random;      // source of the tenure and tie-breaking
+    private final int[] color;                  // the current color of every vertex
+    private final int[] gamma;                  // gamma[v*K+c] - the number of neighbours of v colored c
+    private final long[] tabuUntil;             // tabuUntil[v*K+c] - the first iteration v may take c again
+    private final int[] conflicted;             // vertices with at least one neighbour of the same color
+    private final int[] conflictedPos;          // the position of every vertex in conflicted, -1 if not there
+    private int conflictedCount = 0;            // the number of conflicting vertices
+    private int conflicts = 0;                  // the number of edges whose endpoints have the same color
+    private int[] best;                         // the assignment with the fewest conflicts so far
+    private int bestConflicts;                  // the number of conflicts of best
+    private long iterations = 0;                // the number of moves made by the last search
+
+    /**
+     * Constructor function for initializing variables
+     * @param graph - the graph of the CSP
+     * @param K - the number of colors given in the CSP
+     * @param seed - seed of the random choices
+     */
+    TabuSearch(Graph graph, int K, long seed){
+        int n = graph.size();
+        this.graph = graph;
+        this.K = K;
+        this.offsets = graph.getOffsets();
+        this.neighbours = graph.getNeighbours();
+        this.random = new SplittableRandom(seed);
+        this.color = new int[n];
+        this.gamma = new int[n * K];
+        this.tabuUntil = new long[n * K];
+        this.conflicted = new int[n];
+        this.conflictedPos = new int[n];
+    }
+
+    /**
+     * Starts from a greedy DSatur coloring; vertices it gives a color beyond K take the color fewest neighbours have
+     */
+    private void greedy(){
+        int n = graph.size();
+        int[] dsatur = ChromaticSolver.dsatur(graph);
+        Arrays.fill(gamma, 0);
+        for (int v = 0; v < n; v++){
+            color[v] = dsatur[v];
+            if (color[v] < K) for (int p = offsets[v], end = offsets[v + 1]; p < end; p++) gamma[neighbours[p] * K + color[v]]++;
+        }
+        for (int v = 0; v < n; v++){
+            if (color[v] < K) continue;
+            int c = 0;
+            for (int candidate = 1; candidate < K; candidate++){
+                if (gamma[v * K + candidate] < gamma[v * K + c]) c = candidate;
+            }
+            color[v] = c;
+            for (int p = offsets[v], end = offsets[v + 1]; p < end; p++) gamma[neighbours[p] * K + c]++;
+        }
+
+        // count the conflicts and collect the conflicting vertices
+        conflicts = 0;
+        conflictedCount = 0;
+        Arrays.fill(conflictedPos, -1);
+        for (int v = 0; v < n; v++){
+            conflicts += gamma[v * K + color[v]];
+            if (gamma[v * K + color[v]] > 0) addConflicted(v);
+        }
+        conflicts /= 2; // every conflicting edge is counted from both ends
+    }
+
+    private void addConflicted(int v){
+        conflictedPos[v] = conflictedCount;
+        conflicted[conflictedCount++] = v;
+    }
+
+    private void removeConflicted(int v){
+        int last = conflicted[--conflictedCount];
+        conflicted[conflictedPos[v]] = last;
+        conflictedPos[last] = conflictedPos[v];
+        conflictedPos[v] = -1;
+    }
+
+    /**
+     * Recolors the vertex, updating the conflict table, the conflicting vertices and the number of conflicts
+     * @param v - index of the vertex
+     * @param next - the new color
+     */
+    private void move(int v, int next){
+        int previous = color[v];
+        conflicts += gamma[v * K + next] - gamma[v * K + previous];
+        color[v] = next;
+        for (int p = offsets[v], end = offsets[v + 1]; p < end; p++){
+            int u = neighbours[p];
+            gamma[u * K + previous]--;
+            gamma[u * K + next]++;
+            boolean isConflicted = gamma[u * K + color[u]] > 0;
+            if (isConflicted != (conflictedPos[u] != -1)) {
+                if (isConflicted) addConflicted(u);
+                else removeConflicted(u);
+            }
+        }
+        boolean isConflicted = gamma[v * K + next] > 0;
+        if (isConflicted != (conflictedPos[v] != -1)) {
+            if (isConflicted) addConflicted(v);
+            else removeConflicted(v);
+        }
+    }
+
+    /**
+     * Searches from a greedy assignment until no conflict is left or a budget runs out
+     * @param maxIterations - the largest number of moves, 0 for no limit
+     * @param deadline - the System.nanoTime() the search ends at, 0 for no limit
+     * @return the number of conflicts of the best assignment, 0 if it is a coloring, -1 if there is no
+     * assignment at all because a non-empty graph has no colors
+     */
+    public int solve(long maxIterations, long deadline){
+        iterations = 0;
+        if (K == 0 && graph.size() > 0) {
+            best = null;
+            bestConflicts = -1;
+            return bestConflicts;
+        }
+        greedy();
+        best = color.clone();
+        bestConflicts = conflicts;
+        Arrays.fill(tabuUntil, 0);
+
+        for (iterations = 0; conflicts > 0 && K > 1; iterations++){
+            if (maxIterations > 0 && iterations >= maxIterations) break;
+            if ((iterations & (CHECK_INTERVAL - 1)) == 0 && deadline != 0 && System.nanoTime() - deadline >= 0) break;
+
+            // the best move of a conflicting vertex, ties broken uniformly at random
+            // with many conflicting vertices, only a random sample of them is scored so that a move stays cheap
+            int moveVertex = -1, moveColor = -1, moveDelta = Integer.MAX_VALUE, ties = 0;
+            boolean sampled = conflictedCount > SAMPLE;
+            for (int i = 0, scored = Math.min(conflictedCount, SAMPLE); i < scored; i++){
+                int v = sampled ? conflicted[random.nextInt(conflictedCount)] : conflicted[i];
+                int base = v * K;
+                int own = gamma[base + color[v]];
+                for (int c = 0; c < K; c++){
+                    if (c == color[v]) continue;
+                    int delta = gamma[base + c] - own;
+                    if (delta > moveDelta) continue;
+                    // a tabu move is only taken if it beats the best assignment (aspiration)
+                    if (tabuUntil[base + c] > iterations && conflicts + delta >= bestConflicts) continue;
+                    if (delta < moveDelta) {
+                        moveDelta = delta;
+                        ties = 0;
+                    }
+                    if (random.nextInt(++ties) == 0) {
+                        moveVertex = v;
+                        moveColor = c;
+                    }
+                }
+            }
+
+            // every move is tabu: recolor a random conflicting vertex
+            if (moveVertex == -1) {
+                moveVertex = conflicted[random.nextInt(conflictedCount)];
+                moveColor = (color[moveVertex] + 1 + random.nextInt(K - 1)) % K;
+            }
+
+            int previous = color[moveVertex];
+            move(moveVertex, moveColor);
+            tabuUntil[moveVertex * K + previous] = iterations + random.nextInt(TABU_BASE) + (long) (TABU_FACTOR * conflictedCount) + 1;
+
+            if (conflicts < bestConflicts) {
+                bestConflicts = conflicts;
+                System.arraycopy(color, 0, best, 0, color.length);
+            }
+        }
+        return bestConflicts;
+    }
+
+    /**
+     * Getter functions for class variables
+     */
+
+    public int[] getBest(){
+        return best;
+    }
+
+    public int getBestConflicts(){
+        return bestConflicts;
+    }
+
+    public long getIterations(){
+        return iterations;
+    }
+}
@@ -0,0 +1,63 @@
+import java.util.Arrays;
+
+/**
+ * Trail --- an undo stack of (vertex, color) pairs removed from domains during the search.
+ */
+class Trail{
+    private int[] stack;    // flat storage of pushed pairs: vertex at even, color at odd positions
+    private int size = 0;   // the number of used slots in the stack
+
+    /**
+     * Constructor function for initializing variables
+     */
+    Trail(){
+        stack = new int[1024];
+    }
+
+    /**
+     * Records that the color has been removed from the domain of the vertex
+     * @param vertexId - index of the vertex
+     * @param color - the removed color
+     */
+    public void push(int vertexId, int color){
+        if (size + 2 > stack.length) stack = Arrays.copyOf(stack, stack.length * 2); // grow rarely, amortized
+        stack[size++] = vertexId;
+        stack[size++] = color;
+    }
+
+    /**
+     * Returns a checkpoint that the trail can later be unwound to
+     * @return int
+     */
+    public int checkpoint(){
+        return size;
+    }
+
+    /**
+     * Checks if there are pairs pushed after the checkpoint
+     * @param checkpoint - a value returned by checkpoint()
+     * @return boolean
+     */
+    public boolean isAbove(int checkpoint){
+        return size > checkpoint;
+    }
+
+    /**
+     * Getter functions for the topmost pair
+     */
+
+    public int topVertex(){
+        return stack[size - 2];
+    }
+
+    public int topColor(){
+        return stack[size - 1];
+    }
+
+    /**
+     * Removes the topmost pair
+     */
+    public void pop(){
+        size -= 2;
+    }
+}
@@ -0,0 +1,187 @@
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ * VertexSelector --- picks the next vertex to color over the whole graph by minimum remaining values,
+ * breaking ties by saturation degree and then by the number of uncolored neighbours.
+ * Uncolored vertices are kept in doubly linked buckets indexed by their domain size; a vertex whose domain
+ * has just changed is moved to the head of its new bucket, so the tie-breaking scan only has to look at
+ * the few most recently constrained vertices of the smallest bucket.
+ * With weighting on, the vertices whose domains have been wiped out most often go first among the ties, and
+ * the ties left are broken at random; the weights are kept when the search restarts.
+ */
+class VertexSelector{
+    final static int TIE_WINDOW = 16;       // how many vertices of the smallest bucket are compared for ties
+
+    private final int K;                    // the number of colors given in the CSP
+    private final SolverOptions.VertexOrder order; // how ties in the smallest bucket are broken
+    private final SplittableRandom random;  // source of random tie-breaking
+    private final int[] offsets;            // CSR offsets of the graph
+    private final int[] neighbours;         // CSR adjacency lists of the graph
+    private final Domains domains;          // domains of all vertices
+    private final int[] bucketHead;         // the first vertex of every bucket, -1 if empty
+    private final int[] next;               // the next vertex in the same bucket, -1 at the end
+    private final int[] prev;               // the previous vertex in the same bucket, -1 at the head
+    private final int[] bucketOf;           // the bucket (domain size) every vertex is stored in, -1 if colored
+    private final int[] saturation;         // the number of distinct colors among colored neighbours
+    private final int[] uncoloredDegree;    // the number of uncolored neighbours
+    private final int[] colorUsage;         // colorUsage[v*K+c] - the number of colored neighbours of v with color c
+    private final int[] weight;             // the number of wipeouts of every vertex, null if weighting is off
+
+    /**
+     * Constructor function for initializing variables and filling buckets with all vertices
+     * @param graph - the graph of the CSP
+     * @param domains - domains of all vertices
+     * @param order - how ties in the smallest bucket are broken
+     * @param random - source of random tie-breaking
+     * @param weighted - whether ties are broken by conflict weights first and then at random
+     */
+    VertexSelector(Graph graph, Domains domains, SolverOptions.VertexOrder order, SplittableRandom random, boolean weighted){
+        int n = graph.size();
+        this.K = domains.getK();
+        this.order = order;
+        this.random = random;
+        this.offsets = graph.getOffsets();
+        this.neighbours = graph.getNeighbours();
+        this.domains = domains;
+        this.bucketHead = new int[K + 1];
+        this.next = new int[n];
+        this.prev = new int[n];
+        this.bucketOf = new int[n];
+        this.saturation = new int[n];
+        this.uncoloredDegree = new int[n];
+        this.colorUsage = new int[n * K];
+        this.weight = weighted ? new int[n] : null;
+        Arrays.fill(bucketHead, -1);
+
+        // insert vertices by ascending degree (counting sort), so that the highest degree ends up at the head
+        int maxDegree = 0;
+        for (int v = 0; v < n; v++){
+            uncoloredDegree[v] = graph.degree(v);
+            maxDegree = Math.max(maxDegree, uncoloredDegree[v]);
+        }
+        int[] start = new int[maxDegree + 2];
+        for (int v = 0; v < n; v++) start[uncoloredDegree[v] + 1]++;
+        for (int d = 0; d <= maxDegree; d++) start[d + 1] += start[d];
+        int[] byDegree = new int[n];
+        for (int v = 0; v < n; v++) byDegree[start[uncoloredDegree[v]]++] = v;
+        for (int v : byDegree) link(v, domains.size(v));
+    }
+
+    /**
+     * Inserts the vertex at the head of the bucket
+     * @param v - index of the vertex
+     * @param size - the bucket to insert into
+     */
+    private void link(int v, int size){
+        bucketOf[v] = size;
+        prev[v] = -1;
+        next[v] = bucketHead[size];
+        if (bucketHead[size] != -1) prev[bucketHead[size]] = v;
+        bucketHead[size] = v;
+    }
+
+    /**
+     * Removes the vertex from its bucket
+     * @param v - index of the vertex
+     */
+    private void unlink(int v){
+        if (prev[v] != -1) next[prev[v]] = next[v];
+        else bucketHead[bucketOf[v]] = next[v];
+        if (next[v] != -1) prev[next[v]] = prev[v];
+        bucketOf[v] = -1;
+    }
+
+    /**
+     * Moves the vertex to the bucket of its current domain size, if it is uncolored
+     * @param v - index of the vertex whose domain has changed
+     */
+    public void update(int v){
+        int size = bucketOf[v];
+        if (size == -1 || size == domains.size(v)) return;
+        unlink(v);
+        link(v, domains.size(v));
+    }
+
+    /**
+     * Takes the vertex out of the buckets when it gets a color
+     * @param v - index of the vertex
+     * @param color - the assigned color
+     */
+    public void assign(int v, int color){
+        unlink(v);
+        for (int p = offsets[v], end = offsets[v + 1]; p < end; p++){
+            int u = neighbours[p];
+            uncoloredDegree[u]--;
+            if (colorUsage[u * K + color]++ == 0) saturation[u]++;
+        }
+    }
+
+    /**
+     * Puts the vertex back into the buckets when its color is removed on backtracking
+     * @param v - index of the vertex
+     * @param color - the color that was assigned
+     */
+    public void unassign(int v, int color){
+        for (int p = offsets[v], end = offsets[v + 1]; p < end; p++){
+            int u = neighbours[p];
+            uncoloredDegree[u]++;
+            if (--colorUsage[u * K + color] == 0) saturation[u]--;
+        }
+        link(v, domains.size(v));
+    }
+
+    /**
+     * Increases the conflict weight of the vertex whose domain has been wiped out
+     * @param v - index of the vertex
+     */
+    public void bump(int v){
+        if (weight != null) weight[v]++;
+    }
+
+    /**
+     * Compares two vertices of the same bucket by the tie-breaking rule of the vertex order
+     * @param v - index of the candidate vertex
+     * @param best - index of the best vertex so far
+     * @return a positive number if the candidate is better, 0 if they tie
+     */
+    private int compare(int v, int best){
+        if (weight != null && weight[v] != weight[best]) return weight[v] - weight[best];
+        if (order == SolverOptions.VertexOrder.DSATUR && saturation[v] != saturation[best])
+            return saturation[v] - saturation[best];
+        return uncoloredDegree[v] - uncoloredDegree[best];
+    }
+
+    /**
+     * Selects the uncolored vertex with the minimum remaining values
+     * @return index of the vertex, or -1 if every vertex is colored
+     */
+    public int select(){
+        for (int size = 0; size <= K; size++){
+            int best = bucketHead[size];
+            if (best == -1) continue;
+
+            if (order == SolverOptions.VertexOrder.RANDOM) {
+                // pick any of the first few vertices of the bucket
+                int length = 1;
+                for (int v = next[best]; v != -1 && length < TIE_WINDOW; v = next[v]) length++;
+                for (int i = random.nextInt(length); i > 0; i--) best = next[best];
+                return best;
+            }
+
+            // compare the head of the bucket with the next few vertices by saturation and uncolored degree,
+            // with weighting every tie replaces the best one with the same chance (reservoir sampling)
+            int v = next[best];
+            for (int i = 1, ties = 1; i < TIE_WINDOW && v != -1; i++, v = next[v]){
+                int better = compare(v, best);
+                if (better > 0) {
+                    best = v;
+                    ties = 1;
+                }
+                else if (better == 0 && weight != null && random.nextInt(++ties) == 0) best = v;
+            }
+            return best;
+        }
+        return -1;
+    }
+}
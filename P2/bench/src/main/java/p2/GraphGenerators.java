@@ -0,0 +1,245 @@
+package p2;
+
+import java.io.BufferedWriter;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ * GraphGenerators --- seeded random graphs for the benchmarks. The same seed always gives the same graph.
+ */
+class GraphGenerators{
+    /**
+     * EdgeList --- the edges of a generated graph with vertex ids 1..n
+     */
+    static class EdgeList{
+        final int n;                            // the number of vertices
+        final int K;                            // a number of colors the graph is meant to be tried with
+        int[] from = new int[1024];             // first endpoints of the edges
+        int[] to = new int[1024];               // second endpoints of the edges
+        int count = 0;                          // the number of edges
+
+        EdgeList(int n, int K){
+            this.n = n;
+            this.K = K;
+        }
+
+        void add(int a, int b){
+            if (count == from.length) {
+                from = Arrays.copyOf(from, count * 2);
+                to = Arrays.copyOf(to, count * 2);
+            }
+            from[count] = a + 1;
+            to[count++] = b + 1;
+        }
+
+        Graph toGraph(){
+            return Graph.fromEdges(from, to, count);
+        }
+
+        /**
+         * Writes the edges in the "colors = K" edge list format or in the DIMACS .col format
+         */
+        void write(String fileName, boolean dimacs) throws IOException{
+            try (BufferedWriter writer = new BufferedWriter(new FileWriter(fileName), 1 << 16)) {
+                if (dimacs) writer.write("c generated\np edge " + n + " " + count + "\n");
+                else writer.write("# generated\ncolors = " + K + "\n");
+                for (int i = 0; i < count; i++){
+                    if (dimacs) writer.write("e " + from[i] + " " + to[i] + "\n");
+                    else writer.write(from[i] + "," + to[i] + "\n");
+                }
+            }
+        }
+    }
+
+    /**
+     * Erdos-Renyi G(n,p): every pair of vertices is an edge with probability p, sampled by geometric skips
+     * so the time is linear in the number of edges
+     * @param n - the number of vertices
+     * @param p - the edge probability
+     * @param K - the number of colors written to the file
+     * @param seed - seed of the random choices
+     * @return EdgeList
+     */
+    static EdgeList gnp(int n, double p, int K, long seed){
+        SplittableRandom random = new SplittableRandom(seed);
+        EdgeList edges = new EdgeList(n, K);
+        double logQ = Math.log(1 - p);
+        // walk over the pairs (v, w) with w < v, jumping over the pairs that are not edges
+        for (int v = 1, w = -1; v < n; ){
+            w += 1 + (int) Math.floor(Math.log(1 - random.nextDouble()) / logQ);
+            while (w >= v && v < n){
+                w -= v;
+                v++;
+            }
+            if (v < n) edges.add(v, w);
+        }
+        return edges;
+    }
+
+    /**
+     * A random geometric graph: points in the unit square joined if they are closer than a radius giving the
+     * average degree. Such graphs are locally dense and nearly planar for small degrees.
+     * @param n - the number of vertices
+     * @param degree - the average degree
+     * @param K - the number of colors written to the file
+     * @param seed - seed of the random choices
+     * @return EdgeList
+     */
+    static EdgeList geometric(int n, double degree, int K, long seed){
+        SplittableRandom random = new SplittableRandom(seed);
+        EdgeList edges = new EdgeList(n, K);
+        double radius = Math.sqrt(degree / (Math.PI * n));
+        double[] x = new double[n], y = new double[n];
+        for (int v = 0; v < n; v++){
+            x[v] = random.nextDouble();
+            y[v] = random.nextDouble();
+        }
+
+        // points bucketed into cells of the size of the radius, only neighbouring cells are compared
+        int cells = Math.max(1, (int) (1 / radius));
+        int[] cellStart = new int[cells * cells + 1];
+        int[] cellOf = new int[n];
+        for (int v = 0; v < n; v++){
+            cellOf[v] = Math.min(cells - 1, (int) (x[v] * cells)) * cells + Math.min(cells - 1, (int) (y[v] * cells));
+            cellStart[cellOf[v] + 1]++;
+        }
+        for (int c = 0; c < cells * cells; c++) cellStart[c + 1] += cellStart[c];
+        int[] members = new int[n];
+        int[] fill = Arrays.copyOf(cellStart, cells * cells);
+        for (int v = 0; v < n; v++) members[fill[cellOf[v]]++] = v;
+
+        for (int v = 0; v < n; v++){
+            int cx = cellOf[v] / cells, cy = cellOf[v] % cells;
+            for (int i = Math.max(0, cx - 1); i <= Math.min(cells - 1, cx + 1); i++){
+                for (int j = Math.max(0, cy - 1); j <= Math.min(cells - 1, cy + 1); j++){
+                    for (int p = cellStart[i * cells + j]; p < cellStart[i * cells + j + 1]; p++){
+                        int w = members[p];
+                        double dx = x[v] - x[w], dy = y[v] - y[w];
+                        if (w < v && dx * dx + dy * dy < radius * radius) edges.add(v, w);
+                    }
+                }
+            }
+        }
+        return edges;
+    }
+
+    /**
+     * A flat graph: the vertices are split into K hidden classes of equal size and the edges are spread evenly
+     * over all pairs of classes, so the graph is K-colorable but gives greedy heuristics no degree to go by
+     * @param n - the number of vertices
+     * @param K - the number of hidden classes
+     * @param degree - the average degree
+     * @param seed - seed of the random choices
+     * @return EdgeList
+     */
+    static EdgeList flat(int n, int K, double degree, long seed){
+        SplittableRandom random = new SplittableRandom(seed);
+        EdgeList edges = new EdgeList(n, K);
+        int m = (int) (degree * n / 2);
+        int classSize = n / K;
+        for (int e = 0, a = 0, b = 1; e < m; e++){
+            // class pairs in turn, random vertices within the classes
+            edges.add(a + K * random.nextInt(classSize), b + K * random.nextInt(classSize));
+            if (++b == K) {
+                a = (a + 1) % (K - 1);
+                b = a + 1;
+            }
+        }
+        return edges;
+    }
+
+    /**
+     * A quasigroup with holes: a random latin square of the given order with a fraction of its cells emptied.
+     * Every empty cell is a vertex adjacent to the empty cells of its row and column, and to the vertices of a
+     * clique of the order colors standing for the symbols that are still in its row or column. Coloring it
+     * with order colors completes the square, which is hardest at about 42% holes.
+     * @param order - the order of the square
+     * @param holes - the fraction of emptied cells
+     * @param seed - seed of the random choices
+     * @return EdgeList
+     */
+    static EdgeList quasigroup(int order, double holes, long seed){
+        SplittableRandom random = new SplittableRandom(seed);
+        int[] rows = permutation(order, random), columns = permutation(order, random), symbols = permutation(order, random);
+        int[][] square = new int[order][order];
+        for (int r = 0; r < order; r++){
+            for (int c = 0; c < order; c++) square[rows[r]][columns[c]] = symbols[(r + c) % order];
+        }
+
+        // holes are numbered from order on, the symbol clique takes 0..order-1
+        int[][] hole = new int[order][order];
+        int n = order;
+        for (int r = 0; r < order; r++){
+            for (int c = 0; c < order; c++) hole[r][c] = random.nextDouble() < holes ? n++ : -1;
+        }
+        EdgeList edges = new EdgeList(n, order);
+        for (int s = 0; s < order; s++){
+            for (int t = 0; t < s; t++) edges.add(s, t);
+        }
+        for (int r = 0; r < order; r++){
+            for (int c = 0; c < order; c++){
+                if (hole[r][c] == -1) continue;
+                for (int i = 0; i < order; i++){
+                    // the rest of the row and the column: holes before this one, or symbols that are kept
+                    if (i != c && hole[r][i] == -1) edges.add(hole[r][c], square[r][i]);
+                    else if (i < c) edges.add(hole[r][c], hole[r][i]);
+                    if (i != r && hole[i][c] == -1) edges.add(hole[r][c], square[i][c]);
+                    else if (i < r) edges.add(hole[r][c], hole[i][c]);
+                }
+            }
+        }
+        return edges;
+    }
+
+    /**
+     * A random graph G(n,m) with the average degree at the K-colorability threshold, where random instances
+     * are the hardest to decide
+     * @param n - the number of vertices
+     * @param K - the number of colors
+     * @param seed - seed of the random choices
+     * @return EdgeList
+     */
+    static EdgeList nearThreshold(int n, int K, long seed){
+        // experimental thresholds for 3, 4 and 5 colors, then the asymptotic 2K ln K
+        double degree = K == 3 ? 4.69 : K == 4 ? 8.9 : K == 5 ? 13.69 : 2 * K * Math.log(K);
+        SplittableRandom random = new SplittableRandom(seed);
+        EdgeList edges = new EdgeList(n, K);
+        for (int e = 0, m = (int) (degree * n / 2); e < m; e++){
+            int a = random.nextInt(n), b = random.nextInt(n - 1);
+            edges.add(a, b < a ? b : b + 1);
+        }
+        return edges;
+    }
+
+    private static int[] permutation(int n, SplittableRandom random){
+        int[] permutation = new int[n];
+        for (int i = 0; i < n; i++) permutation[i] = i;
+        for (int i = n - 1; i > 0; i--){
+            int j = random.nextInt(i + 1);
+            int t = permutation[i];
+            permutation[i] = permutation[j];
+            permutation[j] = t;
+        }
+        return permutation;
+    }
+
+    /**
+     * Generates a graph by the name of its generator, as used in benchmark parameters
+     * @param name - gnp, geometric, flat, quasigroup or threshold
+     * @param n - the number of vertices, or the order of the square for quasigroup
+     * @param seed - seed of the random choices
+     * @return EdgeList
+     */
+    static EdgeList byName(String name, int n, long seed){
+        switch (name){
+            case "gnp": return gnp(n, 10.0 / n, 5, seed);
+            case "geometric": return geometric(n, 8, 7, seed);
+            case "flat": return flat(n, 3, 4.5, seed);
+            case "quasigroup": return quasigroup(n, 0.42, seed);
+            case "threshold": return nearThreshold(n, 3, seed);
+            default: throw new IllegalArgumentException("Unknown generator: " + name);
+        }
+    }
+}
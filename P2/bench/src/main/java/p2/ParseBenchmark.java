@@ -0,0 +1,62 @@
+package p2;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * ParseBenchmark --- the time to load a graph from the edge list, the DIMACS format and a snapshot.
+ * Run with -prof gc for the allocation rate of each.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ParseBenchmark{
+    @Param({"100000", "1000000", "4000000"})
+    public int edges;                           // the number of edges of the graph
+
+    @Param({"1", "8"})
+    public int threads;                         // the number of threads parsing chunks
+
+    private File directory;                     // a temporary directory holding the files
+    private String edgeList;                    // the name of the "colors = K" file
+    private String dimacs;                      // the name of the DIMACS file
+    private String snapshot;                    // the name of the snapshot
+
+    @Setup(Level.Trial)
+    public void write() throws Exception{
+        directory = Files.createTempDirectory("parse").toFile();
+        GraphGenerators.EdgeList list = GraphGenerators.gnp(edges / 5, 10.0 / (edges / 5), 4, 1);
+        edgeList = new File(directory, "graph.txt").getPath();
+        dimacs = new File(directory, "graph.col").getPath();
+        snapshot = GraphSnapshot.pathFor(edgeList);
+        list.write(edgeList, false);
+        list.write(dimacs, true);
+        new GraphSnapshot(list.toGraph(), list.K).write(snapshot);
+    }
+
+    @TearDown(Level.Trial)
+    public void delete(){
+        for (File file : directory.listFiles()) file.delete();
+        directory.delete();
+    }
+
+    @Benchmark
+    public int edgeList() throws Exception{
+        return new EdgeListLoader(edgeList, threads).load().arcCount();
+    }
+
+    @Benchmark
+    public int dimacs() throws Exception{
+        return new EdgeListLoader(dimacs, threads).load().arcCount();
+    }
+
+    @Benchmark
+    public int snapshot() throws Exception{
+        return GraphSnapshot.read(snapshot).getGraph().arcCount();
+    }
+}
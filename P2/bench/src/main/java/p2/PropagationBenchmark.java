@@ -0,0 +1,71 @@
+package p2;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * PropagationBenchmark --- the cost of one search node: coloring a vertex with forward checking and AC-3,
+ * and undoing it. A prefix of PREFIX vertices taken from a known coloring is applied and reset, so the
+ * time per operation is the time per node. The ordering of candidate colors is measured on its own.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PropagationBenchmark{
+    final static int PREFIX = 512;              // the number of vertices colored per invocation
+
+    @Param({"1000", "10000", "100000"})
+    public int n;                               // the number of vertices
+
+    @Param({"gnp", "geometric", "threshold"})
+    public String generator;                    // the generator of the graph
+
+    private ColoringSolver solver;              // the solver the prefix is applied to
+    private int[] vertices;                     // the vertices of the prefix, in random order
+    private int[] colors;                       // their colors in a DSatur coloring
+    private int next = 0;                       // the next vertex whose colors are ordered
+
+    @Setup(Level.Trial)
+    public void prepare(){
+        Graph graph = GraphGenerators.byName(generator, n, 1).toGraph();
+        int[] coloring = ChromaticSolver.dsatur(graph);
+        int K = 0;
+        for (int color : coloring) K = Math.max(K, color + 1);
+        solver = new ColoringSolver(graph, K, new SolverOptions());
+
+        // a prefix of a coloring is always consistent, so every invocation colors all of it
+        SplittableRandom random = new SplittableRandom(1);
+        int[] order = new int[graph.size()];
+        for (int v = 0; v < order.length; v++) order[v] = v;
+        for (int i = order.length - 1; i > 0; i--){
+            int j = random.nextInt(i + 1), t = order[i];
+            order[i] = order[j];
+            order[j] = t;
+        }
+        vertices = new int[PREFIX];
+        colors = new int[PREFIX];
+        for (int i = 0; i < PREFIX; i++){
+            vertices[i] = order[i % order.length];
+            colors[i] = coloring[vertices[i]];
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(PREFIX)
+    public boolean assignAndUndo(){
+        boolean consistent = solver.applyPrefix(vertices, colors, PREFIX);
+        solver.reset();
+        return consistent;
+    }
+
+    @Benchmark
+    public void orderColors(Blackhole blackhole){
+        blackhole.consume(solver.leastConstrainingColors(vertices[next], 0));
+        next = (next + 1) % PREFIX;
+    }
+}
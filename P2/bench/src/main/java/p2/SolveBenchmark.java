@@ -0,0 +1,38 @@
+package p2;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * SolveBenchmark --- the time of a whole search on one thread, from the graph to the coloring or the proof
+ * that none exists, including peeling and the split into components
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SolveBenchmark{
+    @Param({"gnp:1000", "gnp:10000", "geometric:1000", "geometric:10000", "flat:150", "flat:300",
+            "quasigroup:10", "quasigroup:15", "threshold:100", "threshold:150"})
+    public String instance;                     // the generator and the number of vertices, or the order for quasigroup
+
+    private Graph graph;                        // the generated graph
+    private int K;                              // the number of colors it is colored with
+    private ColoringOptions options;            // the plain search on one thread
+
+    @Setup(Level.Trial)
+    public void prepare(){
+        String[] parts = instance.split(":");
+        GraphGenerators.EdgeList list = GraphGenerators.byName(parts[0], Integer.parseInt(parts[1]), 1);
+        graph = list.toGraph();
+        K = list.K;
+        options = new ColoringOptions().setThreads(1);
+    }
+
+    @Benchmark
+    public ColoringSolver.Status solve() throws Exception{
+        return new GraphColoring(graph, K, options).solve().getStatus();
+    }
+}